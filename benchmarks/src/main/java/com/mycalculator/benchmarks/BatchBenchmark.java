@@ -0,0 +1,61 @@
+package com.mycalculator.benchmarks;
+
+import com.mycalculator.logic.CompiledExpression;
+import com.mycalculator.logic.InterpreterException;
+import com.mycalculator.logic.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CompiledExpression#evaluateBatch(double[][], double[])} over columns of x, y and z.
+ * The benchmark runs with the Vector API; pass {@code -jvmArgsAppend -Dmycalculator.vector=false}
+ * to measure the scalar loops instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    @Param({"x*y+z*2-x/3", "x*y-z*2<x+y*z", "min(x,y)+max(y,z)*abs(x)"})
+    private String expression;
+
+    @Param({"65536"})
+    private int rows;
+
+    private final Parser parser = new Parser();
+    private final double[][] columns = new double[26][];
+    private CompiledExpression compiled;
+    private double[] out;
+
+    @Setup
+    public void setUp() throws InterpreterException {
+        compiled = parser.compile(expression);
+        for (int slot = 'X' - 'A'; slot <= 'Z' - 'A'; slot++) {
+            columns[slot] = new double[rows];
+            for (int i = 0; i < rows; i++) {
+                columns[slot][i] = Math.sin(i * (slot + 1.0)) * 10;
+            }
+        }
+        out = new double[rows];
+    }
+
+    @Benchmark
+    public double[] evaluateBatch() throws InterpreterException {
+        compiled.evaluateBatch(columns, out);
+        return out;
+    }
+}
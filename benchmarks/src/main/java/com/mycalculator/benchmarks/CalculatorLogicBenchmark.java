@@ -0,0 +1,56 @@
+package com.mycalculator.benchmarks;
+
+import com.mycalculator.logic.CalculatorLogic;
+import com.mycalculator.logic.InterpreterException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entry points the calculator UI uses: cached evaluation and the unary functions.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculatorLogicBenchmark {
+
+    private final CalculatorLogic calculatorLogic = new CalculatorLogic();
+
+    @State(Scope.Benchmark)
+    public static class ExpressionParam {
+        @Param({"SHORT", "LONG", "NESTED", "POWER", "RELATIONAL"})
+        private Expressions expression;
+    }
+
+    @State(Scope.Benchmark)
+    public static class ActionParam {
+        @Param({"√", "Sin", "Cos", "Tg", "Ctg"})
+        private String action;
+        private double number = 0.75;
+    }
+
+    /**
+     * Evaluates through the expression cache, so only the first call pays for parsing.
+     */
+    @Benchmark
+    public double evaluate(ExpressionParam param) throws InterpreterException {
+        return calculatorLogic.evaluate(param.expression.text());
+    }
+
+    @Benchmark
+    public double processNumbers(ActionParam param) {
+        return calculatorLogic.processNumbers(param.number, param.action);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycalculator.benchmarks;
+
+import com.mycalculator.logic.InterpreterException;
+import com.mycalculator.logic.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how expensive invalid input is compared to the valid expressions in {@link ParserBenchmark}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    @Param({"(2+3*4", "2*+", "1/0"})
+    private String expression;
+
+    private final Parser parser = new Parser();
+
+    @Benchmark
+    public Object evaluate() {
+        try {
+            return parser.evaluate(expression);
+        } catch (InterpreterException e) {
+            return e;
+        }
+    }
+}
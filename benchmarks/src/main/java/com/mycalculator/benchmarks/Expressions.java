@@ -0,0 +1,38 @@
+package com.mycalculator.benchmarks;
+
+/**
+ * The expressions shared by the benchmarks, one for each shape of input we care about.
+ */
+public enum Expressions {
+    SHORT("2+3*4"),
+    LONG(repeat("1.5*2-3/4+", 200) + "1"),
+    NESTED(repeat("(1+", 100) + "1" + repeat(")", 100)),
+    POWER("a^1000+2^10*b^c-c^0.5/d^-3"),
+    RELATIONAL("3*4+1>=12-2*3"),
+    VARIABLES("a*b+c*d-e/f+g*h-i%j+k*l-m/n+o*p-q*r+s*t-u*v+w*x-y*z");
+
+    private final String text;
+
+    Expressions(String text) {
+        this.text = text;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    /**
+     * @return variable values A to Z, all non-zero so that VARIABLES never divides by zero
+     */
+    public static double[] bindings() {
+        double[] vars = new double[26];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = i + 1.5;
+        }
+        return vars;
+    }
+
+    private static String repeat(String part, int count) {
+        return part.repeat(count);
+    }
+}
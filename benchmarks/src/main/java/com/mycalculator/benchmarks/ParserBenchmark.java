@@ -0,0 +1,70 @@
+package com.mycalculator.benchmarks;
+
+import com.mycalculator.logic.CompiledExpression;
+import com.mycalculator.logic.InterpreterException;
+import com.mycalculator.logic.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing and evaluation in {@link Parser} for every kind of expression in {@link Expressions}.
+ * Build with {@code mvn -pl benchmarks -am package} and run
+ * {@code java -jar benchmarks/target/benchmarks.jar -prof gc} to also report the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param
+    private Expressions expression;
+
+    private final Parser parser = new Parser();
+    private final double[] vars = Expressions.bindings();
+    private String text;
+    private CompiledExpression compiled;
+
+    @Setup
+    public void setUp() throws InterpreterException {
+        text = expression.text();
+        compiled = parser.compile(text);
+    }
+
+    /**
+     * Tokenizes and parses the expression without evaluating it.
+     */
+    @Benchmark
+    public CompiledExpression compile() throws InterpreterException {
+        return parser.compile(text);
+    }
+
+    /**
+     * Parses and evaluates the expression, as callers of {@link Parser#evaluate(String, double[])} do.
+     */
+    @Benchmark
+    public double evaluate() throws InterpreterException {
+        return parser.evaluate(text, vars);
+    }
+
+    /**
+     * Evaluates an expression that was compiled once during setup.
+     */
+    @Benchmark
+    public double evaluateCompiled() throws InterpreterException {
+        return compiled.evaluate(vars);
+    }
+}
@@ -0,0 +1,201 @@
+package com.mycalculator.cli;
+
+import com.mycalculator.logic.CompiledExpression;
+import com.mycalculator.logic.Environment;
+import com.mycalculator.logic.InterpreterException;
+import com.mycalculator.logic.Parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class evaluates a file with one expression per line and writes one result per line.
+ * The input is memory-mapped one window at a time and ASCII lines are parsed straight from the mapped
+ * bytes, other lines from a reused character buffer, so memory use stays the same however large the
+ * input is. Names other than single letters evaluate as zero without taking a slot, so every line gives
+ * the same result wherever it appears in the file.
+ */
+public final class BulkEvaluator {
+    private static final long WINDOW_SIZE = 64L << 20;
+    private static final int OUTPUT_BUFFER_SIZE = 64 << 10;
+    private static final byte[] ERROR_PREFIX = "Error: ".getBytes(StandardCharsets.US_ASCII);
+
+    private final Parser parser = new Parser(Environment.lettersOnly());
+    private final double[] vars = new double[26];
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    private final FileChannel out;
+    private char[] line = new char[256];
+    private CharBuffer lineBuffer = CharBuffer.wrap(line);
+
+    private BulkEvaluator(FileChannel out) {
+        this.out = out;
+    }
+
+    /**
+     * Evaluates every line of the input file and writes the results to the output file.
+     * A line that cannot be evaluated produces "Error: " followed by the reason.
+     *
+     * @param input the file with one expression per line
+     * @param output the file receiving one result per line; it is replaced if it exists
+     * @return the number of lines evaluated
+     * @throws IOException if a file cannot be read or written
+     */
+    public static long evaluate(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            return new BulkEvaluator(out).run(in);
+        }
+    }
+
+    private long run(FileChannel in) throws IOException {
+        long size = in.size();
+        long position = 0;
+        long window = WINDOW_SIZE;
+        long lines = 0;
+        while (position < size) {
+            int length = (int) Math.min(window, size - position);
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == '\n') {
+                    evaluateLine(buffer, start, i);
+                    lines++;
+                    start = i + 1;
+                }
+            }
+
+            if (position + length == size) {
+                if (start < length) { // Last line without a line break
+                    evaluateLine(buffer, start, length);
+                    lines++;
+                }
+                position = size;
+            } else if (start == 0) { // A single line longer than the window
+                if (window >= Integer.MAX_VALUE) {
+                    throw new IOException("Line too long at offset " + position);
+                }
+                window = Math.min(window * 2, Integer.MAX_VALUE);
+            } else { // Map the next window from the start of the unfinished line
+                position += start;
+                window = WINDOW_SIZE;
+            }
+        }
+        flush();
+        return lines;
+    }
+
+    private void evaluateLine(ByteBuffer buffer, int start, int end) throws IOException {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        try {
+            // ASCII lines are parsed straight from the mapped file, others are decoded first
+            CompiledExpression compiled = isAscii(buffer, start, end)
+                    ? parser.compile(buffer, start, end - start)
+                    : parser.compile(line, 0, decode(buffer, start, end));
+            writeNumber(compiled.evaluate(vars));
+        } catch (InterpreterException e) {
+            write(ERROR_PREFIX);
+            writeAscii(e.getMessage());
+        }
+        write((byte) '\n');
+    }
+
+    private static boolean isAscii(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (line.length < length) {
+            line = new char[Math.max(length, line.length * 2)];
+            lineBuffer = CharBuffer.wrap(line);
+        }
+        lineBuffer.clear();
+        decoder.reset();
+        decoder.decode(buffer.slice(start, length), lineBuffer, true);
+        decoder.flush(lineBuffer);
+        return lineBuffer.position();
+    }
+
+    private void writeNumber(double value) throws IOException {
+        // Whole numbers below 10^7 print as "<digits>.0" in Double.toString, which can be written directly
+        long whole = (long) value;
+        if (whole == value && Math.abs(whole) < 10_000_000 && (whole != 0 || Double.doubleToRawLongBits(value) == 0)) {
+            if (whole < 0) {
+                write((byte) '-');
+                whole = -whole;
+            }
+            int count = 0;
+            do {
+                digits[count++] = (byte) ('0' + whole % 10);
+                whole /= 10;
+            } while (whole != 0);
+            while (count > 0) {
+                write(digits[--count]);
+            }
+            write((byte) '.');
+            write((byte) '0');
+        } else {
+            writeAscii(Double.toString(value));
+        }
+    }
+
+    private void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            write((byte) text.charAt(i));
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            write(b);
+        }
+    }
+
+    private void write(byte b) throws IOException {
+        if (!output.hasRemaining()) {
+            flush();
+        }
+        output.put(b);
+    }
+
+    private void flush() throws IOException {
+        output.flip();
+        while (output.hasRemaining()) {
+            out.write(output);
+        }
+        output.clear();
+    }
+
+    /**
+     * Evaluates a file from the command line.
+     *
+     * @param args the input file and the output file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BulkEvaluator <input file> <output file>");
+            System.exit(2);
+        }
+        evaluate(Path.of(args[0]), Path.of(args[1]));
+    }
+}
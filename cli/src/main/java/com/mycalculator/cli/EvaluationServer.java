@@ -0,0 +1,222 @@
+package com.mycalculator.cli;
+
+import com.mycalculator.logic.CalculatorLogic;
+import com.mycalculator.logic.Environment;
+import com.mycalculator.logic.InterpreterException;
+import com.mycalculator.logic.ParserMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class exposes {@link CalculatorLogic} as an HTTP service on the loopback interface.
+ * A POST to {@code /evaluate} carries one expression per line and gets one result per line back.
+ * Requests from all connections go into one bounded queue. A worker per processor takes a request and
+ * everything queued behind it at that moment, without waiting for more, and evaluates them with one
+ * shared cached parser, so a burst costs one hand-off per worker rather than one per request, and
+ * a single request is never delayed. Every variable is zero, and names other than single letters get no
+ * slot, so no client can change how another one's expressions parse. A warmed-up JVM serves every local
+ * client. Connections are
+ * persistent, so clients can keep them open and send the next request without reconnecting.
+ * Bodies larger than 1 MiB are refused with 413, and requests that find the queue full, or the server
+ * stopping, with 503.
+ * A GET to {@code /metrics} reports the {@link ParserMetrics}.
+ */
+public final class EvaluationServer {
+    private static final int DEFAULT_PORT = 8765;
+    private static final int MAX_BATCH_SIZE = 256; // Requests taken from the queue at once
+    private static final int CACHE_SIZE = 4096;
+    // Every request in the queue parks the handler thread that waits for its result, so both share one limit
+    private static final int MAX_QUEUED_REQUESTS = 256;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final CalculatorLogic calculatorLogic;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final BlockingQueue<Request> queue = new ArrayBlockingQueue<>(MAX_QUEUED_REQUESTS);
+    private final Thread[] workers = new Thread[Runtime.getRuntime().availableProcessors()];
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a new EvaluationServer. It does not accept connections until {@link #start()} is called.
+     *
+     * @param port the loopback port to listen on, or 0 for any free port
+     * @param calculatorLogic the logic used to evaluate every request; its parser must use an environment
+     *                        from {@link Environment#lettersOnly()}, so that names sent by one client
+     *                        cannot use up the slots of the others
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if the parser's environment assigns slots to names
+     */
+    public EvaluationServer(int port, CalculatorLogic calculatorLogic) throws IOException {
+        if (!calculatorLogic.parser.getEnvironment().isLettersOnly()) {
+            throw new IllegalArgumentException("The environment must only hold single letters");
+        }
+        this.calculatorLogic = calculatorLogic;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.handlers = Executors.newFixedThreadPool(MAX_QUEUED_REQUESTS);
+        server.setExecutor(handlers);
+        server.createContext("/evaluate", this::handle);
+        server.createContext("/metrics", this::metrics);
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(this::runBatches, "evaluation-worker-" + i);
+            workers[i].setDaemon(true);
+        }
+    }
+
+    public void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given time for running ones to finish.
+     *
+     * @param delaySeconds the maximum time to wait
+     */
+    public void stop(int delaySeconds) {
+        stopped = true;
+        server.stop(delaySeconds);
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Request request = queue.poll(); request != null; request = queue.poll()) {
+            request.response.cancel(false);
+        }
+        handlers.shutdown();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes;
+            try (InputStream in = exchange.getRequestBody()) {
+                bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (bytes.length > MAX_BODY_BYTES) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+
+            Request request = new Request(new String(bytes, StandardCharsets.UTF_8).lines().toList());
+            if (!queue.offer(request)) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            if (stopped) { // Queued after stop() cancelled everything queued, so nobody will take it
+                request.response.cancel(false);
+            }
+            byte[] response;
+            try {
+                response = request.response.get().getBytes(StandardCharsets.UTF_8);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            } catch (CancellationException e) { // The server stopped before evaluating it
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            } catch (ExecutionException e) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+
+    // Reports the parser metrics, which are collected while -Dmycalculator.metrics=true is set
+    private void metrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] response = (ParserMetrics.summary() + "\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+
+    private void runBatches() {
+        List<Request> batch = new ArrayList<>();
+        try {
+            while (true) {
+                // Wait for a request, then take whatever else is already queued, but wait for nothing more
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                for (Request request : batch) {
+                    request.response.complete(evaluate(request.expressions));
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            for (Request request : batch) {
+                request.response.cancel(false);
+            }
+        }
+    }
+
+    private String evaluate(List<String> expressions) {
+        StringBuilder response = new StringBuilder();
+        for (String expression : expressions) {
+            try {
+                response.append(calculatorLogic.evaluate(expression));
+            } catch (InterpreterException e) {
+                response.append("Error: ").append(e.getMessage());
+            }
+            response.append('\n');
+        }
+        return response.toString();
+    }
+
+    private static final class Request {
+        private final List<String> expressions;
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+
+        Request(List<String> expressions) {
+            this.expressions = expressions;
+        }
+    }
+
+    /**
+     * Starts a server from the command line.
+     *
+     * @param args the port to listen on (optional)
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        EvaluationServer server = new EvaluationServer(port, new CalculatorLogic(CACHE_SIZE, Environment.lettersOnly()));
+        server.start();
+        System.out.println("Listening on http://localhost:" + server.getPort() + "/evaluate");
+    }
+}
@@ -0,0 +1,76 @@
+package com.mycalculator.cli;
+
+import com.mycalculator.logic.EvaluationResult;
+import com.mycalculator.logic.Parser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class evaluates expressions without a user interface: the expressions given as arguments,
+ * or else every line of standard input, read as UTF-8, writing one result per line.
+ * It loads only the parser and never touches AWT or Swing, so it starts about as fast as the JVM itself.
+ * Building with {@code mvn -Pappcds package} also writes a class data archive that makes it start
+ * faster still:
+ * <pre>
+ * java -XX:SharedArchiveFile=cli/target/repl.jsa \
+ *      -cp cli/target/calculator-cli-1.0-SNAPSHOT.jar:core/target/calculator-core-1.0-SNAPSHOT.jar \
+ *      com.mycalculator.cli.Repl "2+3*4"
+ * </pre>
+ */
+public final class Repl {
+    private final Parser parser = new Parser();
+    private final Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)));
+    private boolean failed;
+
+    private Repl() {
+    }
+
+    // Writes the value, or "Error: " followed by the reason and where parsing stopped
+    private void evaluate(String expression) throws IOException {
+        EvaluationResult result = parser.tryEvaluate(expression);
+        if (result.isError()) {
+            out.write("Error: ");
+            failed = true;
+        }
+        out.write(result.toString());
+        out.write('\n');
+    }
+
+    /**
+     * Evaluates the arguments, or standard input if there are none.
+     * The exit status is 1 if any expression failed.
+     *
+     * @param args the expressions
+     */
+    public static void main(String[] args) throws IOException {
+        Repl repl = new Repl();
+        if (args.length > 0) {
+            for (String expression : args) {
+                repl.evaluate(expression);
+            }
+        } else {
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    repl.evaluate(line);
+                }
+                if (!in.ready()) { // Answer now when typing, but not after every line of a piped script
+                    repl.out.flush();
+                }
+            }
+        }
+        repl.out.flush();
+        if (repl.failed) {
+            System.exit(1);
+        }
+    }
+}
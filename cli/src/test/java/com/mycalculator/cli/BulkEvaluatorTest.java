@@ -0,0 +1,45 @@
+package com.mycalculator.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BulkEvaluatorTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void evaluatesEveryLine() throws IOException {
+        assertEquals(List.of("14.0", "Error: Division by zero", "4.0", "0.5", "Error: Syntax error", "2.0"),
+                evaluate(List.of("2+3*4", "1/0", "√16", "2^-1", "1+", "rate+2")));
+    }
+
+    @Test
+    void resultsDoNotDependOnEarlierLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            lines.add("v" + i + "+1");
+        }
+        lines.add("alpha+2");
+        List<String> results = evaluate(lines);
+        assertEquals(evaluate(List.of("alpha+2")).get(0), results.get(results.size() - 1));
+        assertEquals("2.0", results.get(results.size() - 1));
+        assertEquals("1.0", results.get(0));
+    }
+
+    private List<String> evaluate(List<String> lines) throws IOException {
+        Path input = Files.createTempFile(directory, "input", ".txt");
+        Path output = Files.createTempFile(directory, "output", ".txt");
+        Files.write(input, lines, StandardCharsets.UTF_8);
+        assertEquals(lines.size(), BulkEvaluator.evaluate(input, output));
+        return Files.readAllLines(output, StandardCharsets.UTF_8);
+    }
+}
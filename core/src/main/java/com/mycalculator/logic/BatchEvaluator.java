@@ -0,0 +1,141 @@
+package com.mycalculator.logic;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class evaluates large batches of independent expressions on several cores.
+ * The batch is split into chunks that run on a {@link ForkJoinPool}; every expression is parsed with
+ * its own parse state, and results are stored at the index of their expression, so they come back
+ * in input order.
+ */
+public final class BatchEvaluator implements AutoCloseable {
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final Parser parser;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Constructs a new BatchEvaluator with one worker per available processor.
+     *
+     * @param parser the parser used to compile the expressions
+     */
+    public BatchEvaluator(Parser parser) {
+        this(parser, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new BatchEvaluator.
+     *
+     * @param parser the parser used to compile the expressions
+     * @param parallelism the number of worker threads
+     * @param chunkSize the number of expressions a worker evaluates without splitting further
+     * @throws IllegalArgumentException if the parallelism or the chunk size is not positive
+     */
+    public BatchEvaluator(Parser parser, int parallelism, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.parser = parser;
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Evaluates every expression with all variables set to zero.
+     *
+     * @param expressions the expressions
+     * @return the results, in the order of the expressions
+     */
+    public Result evaluate(List<String> expressions) {
+        return evaluate(expressions, new double[Parser.NUMVARS]);
+    }
+
+    /**
+     * Evaluates every expression with the same variable values.
+     *
+     * @param expressions the expressions
+     * @param vars the values of the variables, which must not change during the call
+     * @return the results, in the order of the expressions
+     */
+    public Result evaluate(List<String> expressions, double[] vars) {
+        Result result = new Result(expressions.size());
+        pool.invoke(new Chunk(expressions, vars, result, 0, expressions.size()));
+        return result;
+    }
+
+    /**
+     * Shuts down the worker threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * The values and errors of a batch, indexed like its expressions.
+     */
+    public static final class Result {
+        private final double[] values;
+        private final String[] errors;
+
+        private Result(int size) {
+            values = new double[size];
+            errors = new String[size];
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        /**
+         * @return the value of the expression at the given index, or NaN if it failed
+         */
+        public double value(int index) {
+            return values[index];
+        }
+
+        /**
+         * @return the error message of the expression at the given index, or null if it succeeded
+         */
+        public String error(int index) {
+            return errors[index];
+        }
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private final List<String> expressions;
+        private final double[] vars;
+        private final Result result;
+        private final int from;
+        private final int to;
+
+        Chunk(List<String> expressions, double[] vars, Result result, int from, int to) {
+            this.expressions = expressions;
+            this.vars = vars;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(expressions, vars, result, from, middle),
+                        new Chunk(expressions, vars, result, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                try {
+                    result.values[i] = parser.compile(expressions.get(i)).evaluate(vars);
+                } catch (InterpreterException e) {
+                    result.values[i] = Double.NaN;
+                    result.errors[i] = e.getMessage();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.mycalculator.logic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Translates a {@link CompiledExpression} into JVM bytecode and loads it as a hidden class.
+ * Every instruction becomes straight-line code on a local variable, so the JIT compiler
+ * sees the whole formula as one small method and can inline it into the caller.
+ * Operators that need a check or a loop call the static helpers of {@link CompiledExpression}.
+ */
+final class BytecodeCompiler {
+    // Methods above this size are never compiled by HotSpot, so there is no point in generating them
+    private static final int MAX_CODE_LENGTH = 8000;
+
+    private static final String CLASS_NAME = "com/mycalculator/logic/CompiledExpression$Function";
+    private static final String HELPERS = "com/mycalculator/logic/CompiledExpression";
+    private static final String MATH = "java/lang/Math";
+    private static final String UNARY = "(D)D";
+    private static final String BINARY = "(DD)D";
+    private static final String VARIABLE = "([DI)D";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC2_W = 0x14;
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int DSTORE = 0x39;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DNEG = 0x77;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int WIDE = 0xc4;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+
+    private BytecodeCompiler() {
+    }
+
+    /**
+     * Compiles the expression into a hidden class.
+     *
+     * @return the compiled function, or null if the expression is too large to benefit from it
+     *         or the generated class is rejected
+     */
+    static CompiledFunction compile(CompiledExpression expression) {
+        try {
+            byte[] bytes = new BytecodeCompiler().generate(expression);
+            if (bytes == null) {
+                return null;
+            }
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (CompiledFunction) lookup.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (IOException | ReflectiveOperationException | LinkageError e) {
+            // A class that fails to load or verify is a bug here; the expression stays interpreted
+            System.getLogger(BytecodeCompiler.class.getName())
+                    .log(System.Logger.Level.WARNING, "Cannot compile expression to bytecode", e);
+            return null;
+        }
+    }
+
+    private byte[] generate(CompiledExpression expression) throws IOException {
+        int thisClass = classRef(CLASS_NAME);
+        int superClass = classRef("java/lang/Object");
+        int function = classRef("com/mycalculator/logic/CompiledFunction");
+        int init = utf8("<init>");
+        int voidDescriptor = utf8("()V");
+        int objectInit = methodRef(superClass, "<init>", "()V");
+        int evaluate = utf8("evaluate");
+        int evaluateDescriptor = utf8("([D)D");
+        int code = utf8("Code");
+
+        byte[] body = evaluateBody(expression);
+        if (body == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(classBytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+        out.writeShort(poolCount);
+        pool.flush();
+        poolBytes.writeTo(out);
+        out.writeShort(ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(function);
+        out.writeShort(0); // No fields
+        out.writeShort(2);
+
+        byte[] constructor = {(byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit,
+                (byte) RETURN};
+        writeMethod(out, init, voidDescriptor, code, 1, 1, constructor);
+        writeMethod(out, evaluate, evaluateDescriptor, code, 4, 2 + 2 * (expression.result() + 1), body);
+
+        out.writeShort(0); // No class attributes
+        out.flush();
+        return classBytes.toByteArray();
+    }
+
+    private byte[] evaluateBody(CompiledExpression expression) throws IOException {
+        ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+        DataOutputStream code = new DataOutputStream(codeBytes);
+        int helpers = classRef(HELPERS);
+        int math = classRef(MATH);
+
+        // The value of instruction i lives in local 2 + 2 * i, after "this" and the vars array
+        for (int i = 0; i <= expression.result(); i++) {
+            int l = 2 + 2 * expression.lhs(i);
+            int r = 2 + 2 * expression.rhs(i);
+            switch (expression.op(i)) {
+                case CompiledExpression.CONST -> {
+                    double value = expression.constant(i);
+                    if (Double.doubleToRawLongBits(value) == 0L) {
+                        code.writeByte(DCONST_0);
+                    } else if (value == 1.0) {
+                        code.writeByte(DCONST_1);
+                    } else {
+                        code.writeByte(LDC2_W);
+                        code.writeShort(doubleConstant(value));
+                    }
+                }
+                case CompiledExpression.VAR -> {
+                    if (expression.lhs(i) > Short.MAX_VALUE) {
+                        return null; // Too many variables for sipush
+                    }
+                    code.writeByte(ALOAD_1);
+                    pushInt(code, expression.lhs(i));
+                    code.writeByte(INVOKESTATIC);
+                    code.writeShort(methodRef(helpers, "variable", VARIABLE));
+                }
+                case CompiledExpression.NEG -> {
+                    local(code, DLOAD, l);
+                    code.writeByte(DNEG);
+                }
+                case CompiledExpression.ADD -> arithmetic(code, DADD, l, r);
+                case CompiledExpression.SUB -> arithmetic(code, DSUB, l, r);
+                case CompiledExpression.MUL -> arithmetic(code, DMUL, l, r);
+                case CompiledExpression.DIV -> call(code, helpers, "div", l, r);
+                case CompiledExpression.MOD -> call(code, helpers, "mod", l, r);
+                case CompiledExpression.POW -> call(code, helpers, "pow", l, r);
+                case CompiledExpression.LT -> call(code, helpers, "lt", l, r);
+                case CompiledExpression.GT -> call(code, helpers, "gt", l, r);
+                case CompiledExpression.EQ -> call(code, helpers, "eq", l, r);
+                case CompiledExpression.NE -> call(code, helpers, "ne", l, r);
+                case CompiledExpression.LE -> call(code, helpers, "le", l, r);
+                case CompiledExpression.GE -> call(code, helpers, "ge", l, r);
+                case CompiledExpression.SIN -> call(code, math, "sin", l);
+                case CompiledExpression.COS -> call(code, math, "cos", l);
+                case CompiledExpression.TAN -> call(code, math, "tan", l);
+                case CompiledExpression.COT -> call(code, helpers, "cot", l);
+                case CompiledExpression.SQRT -> call(code, math, "sqrt", l);
+                case CompiledExpression.LOG -> call(code, math, "log", l);
+                case CompiledExpression.EXP -> call(code, math, "exp", l);
+                case CompiledExpression.ABS -> call(code, math, "abs", l);
+                case CompiledExpression.MIN -> call(code, math, "min", l, r);
+                case CompiledExpression.MAX -> call(code, math, "max", l, r);
+                default -> throw new IllegalStateException("Invalid instruction: " + expression.op(i));
+            }
+            local(code, DSTORE, 2 + 2 * i);
+            if (codeBytes.size() > MAX_CODE_LENGTH) {
+                return null;
+            }
+        }
+        local(code, DLOAD, 2 + 2 * expression.result());
+        code.writeByte(DRETURN);
+        code.flush();
+        return codeBytes.toByteArray();
+    }
+
+    private void arithmetic(DataOutputStream code, int opcode, int l, int r) throws IOException {
+        local(code, DLOAD, l);
+        local(code, DLOAD, r);
+        code.writeByte(opcode);
+    }
+
+    private void call(DataOutputStream code, int owner, String name, int x) throws IOException {
+        local(code, DLOAD, x);
+        code.writeByte(INVOKESTATIC);
+        code.writeShort(methodRef(owner, name, UNARY));
+    }
+
+    private void call(DataOutputStream code, int owner, String name, int l, int r) throws IOException {
+        local(code, DLOAD, l);
+        local(code, DLOAD, r);
+        code.writeByte(INVOKESTATIC);
+        code.writeShort(methodRef(owner, name, BINARY));
+    }
+
+    private static void local(DataOutputStream code, int opcode, int index) throws IOException {
+        if (index <= 0xff) {
+            code.writeByte(opcode);
+            code.writeByte(index);
+        } else {
+            code.writeByte(WIDE);
+            code.writeByte(opcode);
+            code.writeShort(index);
+        }
+    }
+
+    private static void pushInt(DataOutputStream code, int value) throws IOException {
+        if (value <= 5) {
+            code.writeByte(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            code.writeByte(BIPUSH);
+            code.writeByte(value);
+        } else {
+            code.writeByte(SIPUSH);
+            code.writeShort(value);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // No exception handlers
+        out.writeShort(0); // No code attributes
+    }
+
+    private int utf8(String value) throws IOException {
+        Integer index = poolIndex.get("U" + value);
+        if (index == null) {
+            pool.writeByte(1);
+            pool.writeUTF(value);
+            index = add("U" + value, 1);
+        }
+        return index;
+    }
+
+    private int classRef(String name) throws IOException {
+        Integer index = poolIndex.get("C" + name);
+        if (index == null) {
+            int nameIndex = utf8(name);
+            pool.writeByte(7);
+            pool.writeShort(nameIndex);
+            index = add("C" + name, 1);
+        }
+        return index;
+    }
+
+    private int methodRef(int owner, String name, String descriptor) throws IOException {
+        String key = "M" + owner + "." + name + descriptor;
+        Integer index = poolIndex.get(key);
+        if (index == null) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            pool.writeByte(12);
+            pool.writeShort(nameIndex);
+            pool.writeShort(descriptorIndex);
+            int nameAndType = add("N" + name + descriptor, 1);
+            pool.writeByte(10);
+            pool.writeShort(owner);
+            pool.writeShort(nameAndType);
+            index = add(key, 1);
+        }
+        return index;
+    }
+
+    private int doubleConstant(double value) throws IOException {
+        long bits = Double.doubleToRawLongBits(value);
+        Integer index = poolIndex.get("D" + bits);
+        if (index == null) {
+            pool.writeByte(6);
+            pool.writeLong(bits);
+            index = add("D" + bits, 2); // Doubles take two constant pool entries
+        }
+        return index;
+    }
+
+    private int add(String key, int entries) {
+        int index = poolCount;
+        poolCount += entries;
+        poolIndex.put(key, index);
+        return index;
+    }
+}
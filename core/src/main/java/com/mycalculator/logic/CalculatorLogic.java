@@ -0,0 +1,97 @@
+package com.mycalculator.logic;
+
+/**
+ * This class represents the logic for a calculator.
+ * It provides methods for performing various mathematical operations.
+ * The parser is thread-safe, so a single instance can be shared between worker threads.
+ */
+public class CalculatorLogic {
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+
+    public final Parser parser;
+    private final ExpressionCache cache;
+    private final double[] vars = new double[Parser.NUMVARS];
+
+    /**
+     * Constructs a new CalculatorLogic with the default expression cache size.
+     */
+    public CalculatorLogic() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a new CalculatorLogic.
+     *
+     * @param cacheSize the maximum number of compiled expressions to keep
+     */
+    public CalculatorLogic(int cacheSize) {
+        this(cacheSize, new Environment());
+    }
+
+    /**
+     * Constructs a new CalculatorLogic that resolves variable names in the given environment.
+     *
+     * @param cacheSize the maximum number of compiled expressions to keep
+     * @param environment the environment of the parser, such as {@link Environment#lettersOnly()}
+     */
+    public CalculatorLogic(int cacheSize, Environment environment) {
+        parser = new Parser(environment);
+        cache = new ExpressionCache(parser, cacheSize);
+    }
+
+    /**
+     * Evaluates the given expression, reusing its compiled form if it was seen recently.
+     *
+     * @param expression the expression
+     * @return the value of the expression
+     * @throws InterpreterException if the expression is invalid
+     */
+    public double evaluate(String expression) throws InterpreterException {
+        return cache.get(expression).evaluate(vars);
+    }
+
+    /**
+     * @return the cache of compiled expressions used by {@link #evaluate(String)}
+     */
+    public ExpressionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Processes the given number with the specified action.
+     *
+     * @param firstNumber the number
+     * @param action the action to perform
+     * @return the result of the operation
+     * @throws IllegalArgumentException if the action is not a valid operator
+     */
+    public double processNumbers(double firstNumber, String action) {
+        return switch (action) {
+            case "√" -> Math.sqrt(firstNumber);
+            case "Sin" -> Math.sin(firstNumber);
+            case "Cos" -> Math.cos(firstNumber);
+            case "Tg" -> Math.tan(firstNumber);
+            case "Ctg" -> 1 / Math.tan(firstNumber);
+            default -> throw new IllegalArgumentException("Invalid operator: " + action);
+        };
+    }
+
+    /**
+     * Processes the memory with the specified action and current text.
+     *
+     * @param memory the memory
+     * @param action the action to perform
+     * @param currentText the current text
+     * @return the result of the operation
+     * @throws IllegalArgumentException if the action is not a valid operator
+     */
+    public double processMemory(double memory, String action, String currentText) {
+        double currentNumber = Double.parseDouble(currentText);
+        return switch (action) {
+            case "MS" -> currentNumber;
+            case "M+" -> memory + currentNumber;
+            case "M-" -> memory - currentNumber;
+            default -> throw new IllegalArgumentException("Invalid operator: " + action);
+        };
+    }
+}
\ No newline at end of file
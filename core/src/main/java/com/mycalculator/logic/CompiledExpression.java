@@ -0,0 +1,449 @@
+package com.mycalculator.logic;
+
+import java.util.Arrays;
+
+/**
+ * This class represents an expression that has already been parsed by {@link Parser#compile(String)}.
+ * It can be evaluated any number of times, from any number of threads, with different variable values.
+ * Its instructions never change. The only mutable state decides when it is compiled to bytecode:
+ * a count of evaluations, which threads update without synchronization, so concurrent updates may be
+ * lost and promotion may come somewhat later than the threshold, and the compiled function itself,
+ * which is published through a volatile field and set at most once.
+ */
+public final class CompiledExpression {
+    static final int CONST = 0;
+    static final int VAR = 1;
+    static final int NEG = 2;
+    static final int ADD = 3;
+    static final int SUB = 4;
+    static final int MUL = 5;
+    static final int DIV = 6;
+    static final int MOD = 7;
+    static final int POW = 8;
+    static final int LT = 9;
+    static final int GT = 10;
+    static final int EQ = 11;
+    static final int NE = 12;
+    static final int LE = 13;
+    static final int GE = 14;
+    static final int SIN = 15;
+    static final int COS = 16;
+    static final int TAN = 17;
+    static final int COT = 18;
+    static final int SQRT = 19;
+    static final int LOG = 20;
+    static final int EXP = 21;
+    static final int ABS = 22;
+    static final int MIN = 23;
+    static final int MAX = 24;
+
+    private static final int BLOCK_SIZE = 256; // Rows evaluated per instruction in batch mode
+    private static final int MAX_SQUARING_EXPONENT = 4; // Largest power computed by repeated multiplication
+    // Evaluations after which the expression is compiled to bytecode; zero or less disables it
+    private static final int JIT_THRESHOLD = Integer.getInteger("mycalculator.jit.threshold", 10_000);
+    // Values of the instructions during interpretation, one array per thread that grows up to MAX_SCRATCH.
+    // Interpreting never calls back into another expression, so one array per thread is enough.
+    // Longer expressions get an array of their own per call, so one huge expression does not pin
+    // megabytes on every pooled thread that ever interpreted it.
+    private static final ThreadLocal<double[]> SCRATCH = new ThreadLocal<>();
+    private static final int MAX_SCRATCH = 4096; // Largest array kept per thread, in instructions
+
+    // Instruction i computes a value from the values of instructions lhs[i] and rhs[i],
+    // which always come before it, so a single forward pass evaluates the whole expression.
+    private final int[] ops;
+    private final int[] lhs;
+    private final int[] rhs;
+    private final double[] constants;
+    private final int result;
+    private int sourceLength; // Size of the parsed text, only reported by the instrumentation
+    private int sourceTokens;
+    private int invocations; // Approximate: racing increments may be lost, which only delays promotion
+    private volatile CompiledFunction function; // Null until promoted, then never changes
+
+    CompiledExpression(int[] ops, int[] lhs, int[] rhs, double[] constants, int result) {
+        this.ops = ops;
+        this.lhs = lhs;
+        this.rhs = rhs;
+        this.constants = constants;
+        this.result = result;
+    }
+
+    /**
+     * Evaluates the expression with the given variable values.
+     *
+     * @param vars the values of the variables, indexed by their {@link Environment} slots;
+     *             variables beyond the end of the array are zero
+     * @return the value of the expression
+     * @throws InterpreterException if a division by zero occurs
+     */
+    public double evaluate(double[] vars) throws InterpreterException {
+        if (ParserMetrics.isRecording()) {
+            return evaluateRecorded(vars);
+        }
+        return evaluateUnrecorded(vars);
+    }
+
+    private double evaluateRecorded(double[] vars) throws InterpreterException {
+        EvaluateEvent event = new EvaluateEvent();
+        ErrorEvent error = new ErrorEvent();
+        event.begin();
+        error.begin();
+        long start = System.nanoTime();
+        try {
+            return evaluateUnrecorded(vars);
+        } catch (InterpreterException e) {
+            event.error = e.getMessage();
+            error.report(e, sourceLength, sourceTokens);
+            throw e;
+        } finally {
+            ParserMetrics.recordEvaluation(System.nanoTime() - start);
+            event.length = sourceLength;
+            event.tokens = sourceTokens;
+            event.instructions = result + 1;
+            event.commit();
+        }
+    }
+
+    private double evaluateUnrecorded(double[] vars) throws InterpreterException {
+        CompiledFunction compiled = function;
+        if (compiled != null) {
+            return compiled.evaluate(vars);
+        }
+        if (JIT_THRESHOLD > 0 && ++invocations >= JIT_THRESHOLD) {
+            promote();
+        }
+        return interpret(vars);
+    }
+
+    private synchronized void promote() {
+        if (function == null) {
+            CompiledFunction compiled = BytecodeCompiler.compile(this);
+            // Expressions that cannot be compiled stay interpreted without counting any further
+            function = (compiled != null) ? compiled : this::interpret;
+        }
+    }
+
+    double interpret(double[] vars) throws InterpreterException {
+        double[] values = SCRATCH.get();
+        if (values == null || values.length <= result) {
+            values = new double[Math.max(result + 1, 64)];
+            if (values.length <= MAX_SCRATCH) {
+                SCRATCH.set(values);
+            }
+        }
+        for (int i = 0; i <= result; i++) {
+            int op = ops[i];
+            if (op == CONST) {
+                values[i] = constants[i];
+                continue;
+            }
+            if (op == VAR) {
+                values[i] = variable(vars, lhs[i]);
+                continue;
+            }
+            values[i] = apply(op, values[lhs[i]], values[rhs[i]]);
+        }
+        return values[result];
+    }
+
+    /**
+     * Evaluates the expression once for every row of the given variable columns.
+     * Each instruction is applied to a block of rows at a time, so the work per row is a tight loop
+     * over primitive arrays and nothing is allocated per row. When the JVM runs with
+     * {@code --add-modules jdk.incubator.vector}, arithmetic, comparisons, min, max, abs and square roots
+     * process a whole vector register of rows per instruction, with exactly the same results.
+     *
+     * @param columns the values of the variables, indexed by their {@link Environment} slots;
+     *                a missing or null column is all zeros
+     * @param out the array receiving one result per row; its length is the number of rows
+     * @throws InterpreterException if a division by zero occurs in any row
+     * @throws IllegalArgumentException if a used column is shorter than {@code out}
+     */
+    public void evaluateBatch(double[][] columns, double[] out) throws InterpreterException {
+        evaluateBatch(columns, out, Vectorization.ENABLED);
+    }
+
+    // Tests call this directly to compare the vector and the scalar loops in one JVM
+    void evaluateBatch(double[][] columns, double[] out, boolean vectorized) throws InterpreterException {
+        int rows = out.length;
+        double[][] values = new double[result + 1][];
+        for (int i = 0; i <= result; i++) {
+            values[i] = new double[Math.min(BLOCK_SIZE, rows)];
+            if (ops[i] == CONST) {
+                Arrays.fill(values[i], constants[i]);
+            } else if (ops[i] == VAR && column(columns, i) != null && column(columns, i).length < rows) {
+                throw new IllegalArgumentException("Column " + lhs[i] + " has fewer than " + rows + " rows");
+            }
+        }
+
+        for (int start = 0; start < rows; start += BLOCK_SIZE) {
+            int n = Math.min(BLOCK_SIZE, rows - start);
+            for (int i = 0; i <= result; i++) {
+                double[] v = values[i];
+                if (ops[i] == CONST) {
+                    continue;
+                }
+                if (ops[i] == VAR) {
+                    double[] column = column(columns, i);
+                    if (column != null) {
+                        System.arraycopy(column, start, v, 0, n);
+                    }
+                    continue;
+                }
+                double[] l = values[lhs[i]];
+                double[] r = values[rhs[i]];
+                if (vectorized && VectorKernels.supports(ops[i])) {
+                    if (ops[i] == DIV && VectorKernels.containsZero(r, n)) {
+                        Parser.handleErr(Parser.DIVBYZERO);
+                    }
+                    VectorKernels.apply(ops[i], l, r, v, n);
+                    continue;
+                }
+                switch (ops[i]) {
+                    case NEG:
+                        for (int k = 0; k < n; k++) v[k] = -l[k];
+                        break;
+                    case ADD:
+                        for (int k = 0; k < n; k++) v[k] = l[k] + r[k];
+                        break;
+                    case SUB:
+                        for (int k = 0; k < n; k++) v[k] = l[k] - r[k];
+                        break;
+                    case MUL:
+                        for (int k = 0; k < n; k++) v[k] = l[k] * r[k];
+                        break;
+                    case DIV:
+                        checkDivisors(r, n);
+                        for (int k = 0; k < n; k++) v[k] = l[k] / r[k];
+                        break;
+                    case MOD:
+                        checkDivisors(r, n);
+                        for (int k = 0; k < n; k++) v[k] = l[k] % r[k];
+                        break;
+                    case POW:
+                        for (int k = 0; k < n; k++) v[k] = pow(l[k], r[k]);
+                        break;
+                    case LT:
+                        for (int k = 0; k < n; k++) v[k] = (l[k] < r[k]) ? 1.0 : 0.0;
+                        break;
+                    case GT:
+                        for (int k = 0; k < n; k++) v[k] = (l[k] > r[k]) ? 1.0 : 0.0;
+                        break;
+                    case EQ:
+                        for (int k = 0; k < n; k++) v[k] = (l[k] == r[k]) ? 1.0 : 0.0;
+                        break;
+                    case NE:
+                        for (int k = 0; k < n; k++) v[k] = (l[k] != r[k]) ? 1.0 : 0.0;
+                        break;
+                    case LE:
+                        for (int k = 0; k < n; k++) v[k] = (l[k] <= r[k]) ? 1.0 : 0.0;
+                        break;
+                    case GE:
+                        for (int k = 0; k < n; k++) v[k] = (l[k] >= r[k]) ? 1.0 : 0.0;
+                        break;
+                    case SIN:
+                        for (int k = 0; k < n; k++) v[k] = Math.sin(l[k]);
+                        break;
+                    case COS:
+                        for (int k = 0; k < n; k++) v[k] = Math.cos(l[k]);
+                        break;
+                    case TAN:
+                        for (int k = 0; k < n; k++) v[k] = Math.tan(l[k]);
+                        break;
+                    case COT:
+                        for (int k = 0; k < n; k++) v[k] = cot(l[k]);
+                        break;
+                    case SQRT:
+                        for (int k = 0; k < n; k++) v[k] = Math.sqrt(l[k]);
+                        break;
+                    case LOG:
+                        for (int k = 0; k < n; k++) v[k] = Math.log(l[k]);
+                        break;
+                    case EXP:
+                        for (int k = 0; k < n; k++) v[k] = Math.exp(l[k]);
+                        break;
+                    case ABS:
+                        for (int k = 0; k < n; k++) v[k] = Math.abs(l[k]);
+                        break;
+                    case MIN:
+                        for (int k = 0; k < n; k++) v[k] = Math.min(l[k], r[k]);
+                        break;
+                    case MAX:
+                        for (int k = 0; k < n; k++) v[k] = Math.max(l[k], r[k]);
+                        break;
+                    default:
+                        throw new IllegalStateException("Invalid instruction: " + ops[i]);
+                }
+            }
+            System.arraycopy(values[result], 0, out, start, n);
+        }
+    }
+
+    /**
+     * Differentiates the expression symbolically.
+     * The derivative is compiled like any other expression, so evaluating it costs about as much as
+     * evaluating the expression itself.
+     *
+     * @param slot the {@link Environment} slot of the variable to differentiate by
+     * @return the derivative with respect to that variable
+     * @throws InterpreterException if simplifying the derivative fails
+     */
+    public CompiledExpression derivative(int slot) throws InterpreterException {
+        return Differentiator.differentiate(this, slot);
+    }
+
+    void setSource(int length, int tokens) {
+        sourceLength = length;
+        sourceTokens = tokens;
+    }
+
+    int result() {
+        return result;
+    }
+
+    int op(int instruction) {
+        return ops[instruction];
+    }
+
+    int lhs(int instruction) {
+        return lhs[instruction];
+    }
+
+    int rhs(int instruction) {
+        return rhs[instruction];
+    }
+
+    double constant(int instruction) {
+        return constants[instruction];
+    }
+
+    private double[] column(double[][] columns, int instruction) {
+        int slot = lhs[instruction];
+        return slot < columns.length ? columns[slot] : null;
+    }
+
+    private static void checkDivisors(double[] divisors, int n) throws InterpreterException {
+        for (int k = 0; k < n; k++) {
+            if (divisors[k] == 0.0) {
+                Parser.handleErr(Parser.DIVBYZERO);
+            }
+        }
+    }
+
+    // Instructions that take a single operand, which is stored as both lhs and rhs
+    static boolean isUnary(int op) {
+        return op == NEG || (op >= SIN && op <= ABS);
+    }
+
+    static double apply(int op, double l, double r) throws InterpreterException {
+        return switch (op) {
+            case NEG -> -l;
+            case ADD -> l + r;
+            case SUB -> l - r;
+            case MUL -> l * r;
+            case DIV -> div(l, r);
+            case MOD -> mod(l, r);
+            case POW -> pow(l, r);
+            case LT -> lt(l, r);
+            case GT -> gt(l, r);
+            case EQ -> eq(l, r);
+            case NE -> ne(l, r);
+            case LE -> le(l, r);
+            case GE -> ge(l, r);
+            case SIN -> Math.sin(l);
+            case COS -> Math.cos(l);
+            case TAN -> Math.tan(l);
+            case COT -> cot(l);
+            case SQRT -> Math.sqrt(l);
+            case LOG -> Math.log(l);
+            case EXP -> Math.exp(l);
+            case ABS -> Math.abs(l);
+            case MIN -> Math.min(l, r);
+            case MAX -> Math.max(l, r);
+            default -> throw new IllegalStateException("Invalid instruction: " + op);
+        };
+    }
+
+    // Operators used by the interpreter and by the code that BytecodeCompiler generates
+
+    // Variables beyond the end of the array are zero, so callers never have to size it for new names
+    static double variable(double[] vars, int slot) {
+        return (slot < vars.length) ? vars[slot] : 0.0;
+    }
+
+    static double pow(double base, double exponent) {
+        if (exponent == 0.0) {
+            return 1.0;
+        }
+        if (exponent != Math.rint(exponent) || Math.abs(exponent) > MAX_SQUARING_EXPONENT) {
+            return Math.pow(base, exponent);
+        }
+        // Exponentiation by squaring. Every rounding error is raised to the remaining power, so the error
+        // grows with the exponent, to 50 ulps at 64; up to 4 it stays within 3 ulps, and Math.pow does the rest.
+        int n = (int) Math.abs(exponent);
+        double result = 1.0;
+        double square = base;
+        while (n != 0) {
+            if ((n & 1) != 0) {
+                result *= square;
+            }
+            square *= square;
+            n >>>= 1;
+        }
+        if (exponent > 0) {
+            return result;
+        }
+        // The reciprocal of an overflowed or subnormal power would lose a result that is still representable
+        return (Double.isInfinite(result) || Math.abs(result) < Double.MIN_NORMAL)
+                ? Math.pow(base, exponent) : 1.0 / result;
+    }
+
+    static double div(double l, double r) throws InterpreterException {
+        if (r == 0.0) {
+            Parser.handleErr(Parser.DIVBYZERO);
+        }
+        return l / r;
+    }
+
+    static double mod(double l, double r) throws InterpreterException {
+        if (r == 0.0) {
+            Parser.handleErr(Parser.DIVBYZERO);
+        }
+        return l % r;
+    }
+
+    static double cot(double x) {
+        return 1 / Math.tan(x);
+    }
+
+    static double lt(double l, double r) {
+        return (l < r) ? 1.0 : 0.0;
+    }
+
+    static double gt(double l, double r) {
+        return (l > r) ? 1.0 : 0.0;
+    }
+
+    static double eq(double l, double r) {
+        return (l == r) ? 1.0 : 0.0;
+    }
+
+    static double ne(double l, double r) {
+        return (l != r) ? 1.0 : 0.0;
+    }
+
+    static double le(double l, double r) {
+        return (l <= r) ? 1.0 : 0.0;
+    }
+
+    static double ge(double l, double r) {
+        return (l >= r) ? 1.0 : 0.0;
+    }
+
+    // Whether batch evaluation uses VectorKernels, which needs --add-modules jdk.incubator.vector at run time.
+    // Looking up the module starts the lambda machinery, so it happens on the first batch, not at startup.
+    private static final class Vectorization {
+        static final boolean ENABLED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                && Boolean.parseBoolean(System.getProperty("mycalculator.vector", "true"));
+    }
+}
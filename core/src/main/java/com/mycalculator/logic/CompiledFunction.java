@@ -0,0 +1,9 @@
+package com.mycalculator.logic;
+
+/**
+ * A compiled expression as a function of its variables.
+ * Implemented by the classes that {@link BytecodeCompiler} generates.
+ */
+interface CompiledFunction {
+    double evaluate(double[] vars) throws InterpreterException;
+}
@@ -0,0 +1,129 @@
+package com.mycalculator.logic;
+
+/**
+ * Builds the derivative of a compiled expression with respect to one variable.
+ * The instructions are differentiated in order, in forward mode: the derivative of every instruction is
+ * emitted right after the instructions it needs, next to a copy of the original values, so both share
+ * one DAG and the derivative reuses subexpressions of the function. Derivatives known to be zero are
+ * tracked symbolically and never emitted, which keeps terms like {@code 0 * x} out of the result.
+ * Comparisons are treated as constant and min, max and abs follow the branch their operands select.
+ */
+final class Differentiator {
+    private static final int ZERO = -1; // Derivative that is zero everywhere
+
+    private final CompiledExpression source;
+    private final int slot;
+    private final ExpressionBuilder code = new ExpressionBuilder();
+
+    private Differentiator(CompiledExpression source, int slot) {
+        this.source = source;
+        this.slot = slot;
+    }
+
+    static CompiledExpression differentiate(CompiledExpression expression, int slot) throws InterpreterException {
+        return ExpressionOptimizer.optimize(new Differentiator(expression, slot).run());
+    }
+
+    private CompiledExpression run() {
+        int count = source.result() + 1;
+        int[] value = new int[count];
+        int[] derivative = new int[count];
+        for (int i = 0; i < count; i++) {
+            int op = source.op(i);
+            switch (op) {
+                case CompiledExpression.CONST:
+                    value[i] = code.constant(source.constant(i));
+                    derivative[i] = ZERO;
+                    continue;
+                case CompiledExpression.VAR:
+                    value[i] = code.variable(source.lhs(i));
+                    derivative[i] = (source.lhs(i) == slot) ? code.constant(1.0) : ZERO;
+                    continue;
+                default:
+                    int u = value[source.lhs(i)];
+                    int w = value[source.rhs(i)];
+                    value[i] = CompiledExpression.isUnary(op) ? code.unary(op, u) : code.binary(op, u, w);
+                    derivative[i] = derive(op, value[i], u, w, derivative[source.lhs(i)], derivative[source.rhs(i)]);
+            }
+        }
+        int result = derivative[source.result()];
+        return code.build(result == ZERO ? code.constant(0.0) : result);
+    }
+
+    // Derivative of v = u op w, given the derivatives du and dw of the operands
+    private int derive(int op, int v, int u, int w, int du, int dw) {
+        switch (op) {
+            case CompiledExpression.NEG:
+                return negate(du);
+            case CompiledExpression.ADD:
+                return add(du, dw);
+            case CompiledExpression.SUB:
+                return add(du, negate(dw));
+            case CompiledExpression.MUL: // du * w + u * dw
+                return add(multiply(du, w), multiply(u, dw));
+            case CompiledExpression.DIV: // (du - v * dw) / w
+                return divide(add(du, negate(multiply(v, dw))), w);
+            case CompiledExpression.MOD: // u % w is u - w * q with q = (u - v) / w constant between jumps
+                return add(du, negate(multiply(dw, divide(code.binary(CompiledExpression.SUB, u, v), w))));
+            case CompiledExpression.POW:
+                if (dw == ZERO) { // w * u^(w - 1) * du
+                    int exponent = code.binary(CompiledExpression.SUB, w, code.constant(1.0));
+                    return multiply(multiply(w, code.binary(CompiledExpression.POW, u, exponent)), du);
+                }
+                // v * (dw * log(u) + w * du / u)
+                int logarithm = multiply(dw, code.unary(CompiledExpression.LOG, u));
+                return multiply(v, add(logarithm, divide(multiply(w, du), u)));
+            case CompiledExpression.SIN:
+                return multiply(code.unary(CompiledExpression.COS, u), du);
+            case CompiledExpression.COS:
+                return negate(multiply(code.unary(CompiledExpression.SIN, u), du));
+            case CompiledExpression.TAN: // (1 + v^2) * du
+                return multiply(add(code.constant(1.0), multiply(v, v)), du);
+            case CompiledExpression.COT: // -(1 + v^2) * du
+                return negate(multiply(add(code.constant(1.0), multiply(v, v)), du));
+            case CompiledExpression.SQRT: // du / (2 * v)
+                return divide(du, multiply(code.constant(2.0), v));
+            case CompiledExpression.LOG:
+                return divide(du, u);
+            case CompiledExpression.EXP:
+                return multiply(v, du);
+            case CompiledExpression.ABS: // du * ((u > 0) - (u < 0)), the sign of u, which is 0 at the kink
+                int zero = code.constant(0.0);
+                return multiply(du, code.binary(CompiledExpression.SUB,
+                        code.binary(CompiledExpression.GT, u, zero), code.binary(CompiledExpression.LT, u, zero)));
+            case CompiledExpression.MIN:
+                return select(CompiledExpression.LE, CompiledExpression.GT, u, w, du, dw);
+            case CompiledExpression.MAX:
+                return select(CompiledExpression.GE, CompiledExpression.LT, u, w, du, dw);
+            default: // Comparisons are piecewise constant
+                return ZERO;
+        }
+    }
+
+    // du where u (first) wins the comparison, dw where w wins: first(u, w) * du + second(u, w) * dw
+    private int select(int first, int second, int u, int w, int du, int dw) {
+        return add(multiply(code.binary(first, u, w), du), multiply(code.binary(second, u, w), dw));
+    }
+
+    private int add(int a, int b) {
+        if (a == ZERO) {
+            return b;
+        }
+        if (b == ZERO) {
+            return a;
+        }
+        return code.binary(CompiledExpression.ADD, a, b);
+    }
+
+    private int negate(int a) {
+        return (a == ZERO) ? ZERO : code.unary(CompiledExpression.NEG, a);
+    }
+
+    private int multiply(int a, int b) {
+        return (a == ZERO || b == ZERO) ? ZERO : code.binary(CompiledExpression.MUL, a, b);
+    }
+
+    private int divide(int a, int b) {
+        return (a == ZERO) ? ZERO : code.binary(CompiledExpression.DIV, a, b);
+    }
+}
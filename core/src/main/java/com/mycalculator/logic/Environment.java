@@ -0,0 +1,182 @@
+package com.mycalculator.logic;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class assigns the variables of expressions to slots in the array of variable values.
+ * Names are resolved once, when an expression is parsed, so evaluation only indexes the array.
+ * The single letters A to Z always take slots 0 to 25, and every other name gets the next free slot
+ * the first time it is seen. Names ignore case, and a slot never changes once assigned, so expressions
+ * compiled earlier stay valid as new names are added.
+ * The number of slots is bounded, so a parser that is fed arbitrary names cannot grow without limit:
+ * once every slot is taken, expressions with new names fail with "Too many variables". Callers that
+ * must not share names, such as unrelated clients of a server, should each use their own Environment,
+ * or one from {@link #lettersOnly()}, which never assigns a slot.
+ */
+public final class Environment {
+    /** The default maximum number of slots, including the 26 single letters. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    static final int UNBOUND = -2; // Returned by assign() for names that evaluate as zero without a slot
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final boolean lettersOnly;
+
+    /**
+     * Constructs a new Environment holding only the single-letter variables, with the default capacity.
+     */
+    public Environment() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new Environment holding only the single-letter variables.
+     *
+     * @param capacity the maximum number of slots, including the 26 single letters
+     * @throws IllegalArgumentException if the capacity is less than 26
+     */
+    public Environment(int capacity) {
+        this(capacity, false);
+        if (capacity < Parser.NUMVARS) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+    }
+
+    private Environment(int capacity, boolean lettersOnly) {
+        this.capacity = capacity;
+        this.lettersOnly = lettersOnly;
+        for (char name = 'a'; name <= 'z'; name++) {
+            slots.put(String.valueOf(name), name - 'a');
+        }
+    }
+
+    /**
+     * Returns a new Environment holding only the single-letter variables that never assigns another slot.
+     * Every other name evaluates as zero, so parsing never changes the environment and no expression
+     * affects how another one parses. This suits callers such as servers and bulk evaluators, which
+     * evaluate every variable as zero anyway.
+     *
+     * @return the environment
+     */
+    public static Environment lettersOnly() {
+        return new Environment(Parser.NUMVARS, true);
+    }
+
+    /**
+     * @return whether names other than single letters evaluate as zero instead of getting a slot
+     */
+    public boolean isLettersOnly() {
+        return lettersOnly;
+    }
+
+    /**
+     * Returns the slot of the given variable, assigning a new one if the name has not been seen yet.
+     *
+     * @param name the name of the variable
+     * @return the index of its value in the array of variable values
+     * @throws IllegalStateException if the name is new and every slot is taken, or the environment
+     *                               only holds single letters
+     */
+    public int slot(String name) {
+        int slot = assign(name);
+        if (slot == UNBOUND) {
+            throw new IllegalStateException("Only single-letter variables have slots: " + name);
+        }
+        if (slot < 0) {
+            throw new IllegalStateException("Too many variables: " + capacity);
+        }
+        return slot;
+    }
+
+    /**
+     * @return the number of slots assigned so far, which is the length that holds every variable
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return the maximum number of slots
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    // Looking up a known name takes no lock, so parsing in parallel never waits here.
+    // Returns -1 when every slot is taken, or UNBOUND for a new name in a letters-only environment.
+    int assign(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        if (lettersOnly) {
+            return UNBOUND;
+        }
+        synchronized (this) {
+            slot = slots.get(key);
+            if (slot == null) {
+                if (slots.size() >= capacity) {
+                    return -1;
+                }
+                slot = slots.size();
+                slots.put(key, slot);
+            }
+            return slot;
+        }
+    }
+
+    // The slot of a name seen before, or -1; unlike slot() it never assigns one
+    int find(String name) {
+        Integer slot = slots.get(name.toLowerCase(Locale.ROOT));
+        return (slot != null) ? slot : -1;
+    }
+
+    /**
+     * Builds the array of variable values from named values. Variables without a value are zero,
+     * and names that no expression has used yet are ignored, because no expression can read them.
+     *
+     * @param values the values by variable name
+     * @return the values indexed by slot
+     */
+    public double[] values(Map<String, Double> values) {
+        double[] vars = new double[size()];
+        for (Map.Entry<String, Double> value : values.entrySet()) {
+            int slot = find(value.getKey());
+            if (slot < 0) {
+                continue;
+            }
+            if (slot >= vars.length) { // Assigned since the array was sized
+                vars = Arrays.copyOf(vars, slot + 1);
+            }
+            vars[slot] = value.getValue();
+        }
+        return vars;
+    }
+
+    /**
+     * Builds the columns for {@link CompiledExpression#evaluateBatch} from named columns.
+     * Names that no expression has used yet are ignored.
+     *
+     * @param columns the columns by variable name
+     * @return the columns indexed by slot; variables without a column are null
+     */
+    public double[][] columns(Map<String, double[]> columns) {
+        double[][] slotted = new double[size()][];
+        for (Map.Entry<String, double[]> column : columns.entrySet()) {
+            int slot = find(column.getKey());
+            if (slot < 0) {
+                continue;
+            }
+            if (slot >= slotted.length) {
+                slotted = Arrays.copyOf(slotted, slot + 1);
+            }
+            slotted[slot] = column.getValue();
+        }
+        return slotted;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycalculator.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a parse or an evaluation that failed, with the stack of the failed call.
+ * It is begun with the operation, so its duration is the time until the error. Errors of batch evaluation
+ * and root solving, which emit no parse or evaluation events either, are only counted by {@link ParserMetrics}.
+ */
+@Name("com.mycalculator.Error")
+@Label("Calculator Error")
+@Category("Calculator")
+@Description("Syntax or evaluation error")
+final class ErrorEvent extends Event {
+    @Label("Code")
+    int code;
+
+    @Label("Message")
+    String message;
+
+    @Label("Expression Length")
+    int length;
+
+    @Label("Tokens")
+    int tokens;
+
+    // Ends the event at the error and commits it with the expression of the failed operation
+    void report(InterpreterException error, int length, int tokens) {
+        end();
+        if (shouldCommit()) {
+            this.code = error.code();
+            this.message = error.getMessage();
+            this.length = length;
+            this.tokens = tokens;
+            commit();
+        }
+    }
+}
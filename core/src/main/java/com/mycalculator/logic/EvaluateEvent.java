@@ -0,0 +1,30 @@
+package com.mycalculator.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one evaluation of a compiled expression.
+ */
+@Name("com.mycalculator.Evaluate")
+@Label("Evaluate")
+@Category("Calculator")
+@Description("Evaluation of a compiled expression")
+@StackTrace(false)
+final class EvaluateEvent extends Event {
+    @Label("Expression Length")
+    int length;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Instructions")
+    int instructions;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,68 @@
+package com.mycalculator.logic;
+
+/**
+ * This class holds the outcome of {@link Parser#tryEvaluate(String, double[])}: either a value, or the
+ * code, message and position of the error that stopped parsing or evaluation.
+ */
+public final class EvaluationResult {
+    private final double value;
+    private final int errorCode;
+    private final int errorPosition;
+
+    private EvaluationResult(double value, int errorCode, int errorPosition) {
+        this.value = value;
+        this.errorCode = errorCode;
+        this.errorPosition = errorPosition;
+    }
+
+    static EvaluationResult success(double value) {
+        return new EvaluationResult(value, 0, -1);
+    }
+
+    static EvaluationResult failure(int errorCode, int errorPosition) {
+        return new EvaluationResult(Double.NaN, errorCode, errorPosition);
+    }
+
+    public boolean isError() {
+        return errorCode != 0;
+    }
+
+    /**
+     * @return the value of the expression, or NaN if there was an error
+     */
+    public double value() {
+        return value;
+    }
+
+    /**
+     * @return the code of the error, from 11 (syntax error) to 17 (too many variables), or 0 if there was none
+     */
+    public int errorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return the message of the error, such as "Division by zero", or null if there was none
+     */
+    public String errorMessage() {
+        return isError() ? Parser.errorMessage(errorCode) : null;
+    }
+
+    /**
+     * Returns where parsing stopped, as an index into the expression: the start of the token that could
+     * not be parsed, or the end of the expression if it ended too early.
+     *
+     * @return the position, or -1 if there was no error or the error happened during evaluation
+     */
+    public int errorPosition() {
+        return errorPosition;
+    }
+
+    @Override
+    public String toString() {
+        if (!isError()) {
+            return Double.toString(value);
+        }
+        return (errorPosition < 0) ? errorMessage() : errorMessage() + " at " + errorPosition;
+    }
+}
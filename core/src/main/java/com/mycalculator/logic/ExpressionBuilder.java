@@ -0,0 +1,155 @@
+package com.mycalculator.logic;
+
+import java.util.Arrays;
+
+/**
+ * Collects the instructions of a {@link CompiledExpression} while an expression is being parsed.
+ * Every method returns the index of the instruction that holds the emitted value.
+ * Instructions are hash-consed: emitting one that already exists returns the existing index,
+ * so repeated subexpressions form a DAG and are evaluated only once.
+ */
+final class ExpressionBuilder {
+    private int[] ops = new int[16];
+    private int[] lhs = new int[16];
+    private int[] rhs = new int[16];
+    private double[] constants = new double[16];
+    private int size;
+    private int[] table = new int[32]; // Instruction index + 1 for every distinct instruction, 0 if free
+
+    int constant(double value) {
+        return emit(CompiledExpression.CONST, 0, 0, value);
+    }
+
+    int variable(int slot) {
+        return emit(CompiledExpression.VAR, slot, 0, 0.0);
+    }
+
+    int unary(int op, int operand) {
+        return emit(op, operand, operand, 0.0);
+    }
+
+    int binary(int op, int left, int right) {
+        if (isCommutative(op) && left > right) {
+            // a*b and b*a give the same IEEE result, so both share one instruction
+            int swap = left;
+            left = right;
+            right = swap;
+        }
+        return emit(op, left, right, 0.0);
+    }
+
+    int op(int instruction) {
+        return ops[instruction];
+    }
+
+    int lhs(int instruction) {
+        return lhs[instruction];
+    }
+
+    double constantValue(int instruction) {
+        return constants[instruction];
+    }
+
+    boolean isConstant(int instruction) {
+        return ops[instruction] == CompiledExpression.CONST;
+    }
+
+    CompiledExpression build(int result) {
+        // Keep only the instructions the result depends on, e.g. not the operands of folded constants
+        boolean[] used = new boolean[result + 1];
+        used[result] = true;
+        for (int i = result; i >= 0; i--) {
+            if (used[i] && ops[i] != CompiledExpression.CONST && ops[i] != CompiledExpression.VAR) {
+                used[lhs[i]] = true;
+                used[rhs[i]] = true;
+            }
+        }
+
+        int[] index = new int[result + 1];
+        int length = 0;
+        for (int i = 0; i <= result; i++) {
+            if (used[i]) {
+                index[i] = length++;
+            }
+        }
+        int[] newOps = new int[length];
+        int[] newLhs = new int[length];
+        int[] newRhs = new int[length];
+        double[] newConstants = new double[length];
+        for (int i = 0; i <= result; i++) {
+            if (used[i]) {
+                int j = index[i];
+                newOps[j] = ops[i];
+                newConstants[j] = constants[i];
+                if (ops[i] == CompiledExpression.VAR) {
+                    newLhs[j] = lhs[i];
+                } else if (ops[i] != CompiledExpression.CONST) {
+                    newLhs[j] = index[lhs[i]];
+                    newRhs[j] = index[rhs[i]];
+                }
+            }
+        }
+        return new CompiledExpression(newOps, newLhs, newRhs, newConstants, length - 1);
+    }
+
+    private int emit(int op, int left, int right, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        int mask = table.length - 1;
+        for (int slot = hash(op, left, right, bits) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                int i = append(op, left, right, value);
+                table[slot] = i + 1;
+                if (size * 2 > table.length) {
+                    rehash();
+                }
+                return i;
+            }
+            int i = entry - 1;
+            if (ops[i] == op && lhs[i] == left && rhs[i] == right && Double.doubleToRawLongBits(constants[i]) == bits) {
+                return i;
+            }
+        }
+    }
+
+    private int append(int op, int left, int right, double value) {
+        if (size == ops.length) {
+            int capacity = size * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            lhs = Arrays.copyOf(lhs, capacity);
+            rhs = Arrays.copyOf(rhs, capacity);
+            constants = Arrays.copyOf(constants, capacity);
+        }
+        ops[size] = op;
+        lhs[size] = left;
+        rhs[size] = right;
+        constants[size] = value;
+        return size++;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(ops[i], lhs[i], rhs[i], Double.doubleToRawLongBits(constants[i])) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    private static int hash(int op, int left, int right, long bits) {
+        int h = op;
+        h = h * 31 + left;
+        h = h * 31 + right;
+        h = h * 31 + Long.hashCode(bits);
+        return (h ^ (h >>> 16)) * 0x9E3779B1;
+    }
+
+    private static boolean isCommutative(int op) {
+        return op == CompiledExpression.ADD || op == CompiledExpression.MUL
+                || op == CompiledExpression.EQ || op == CompiledExpression.NE
+                || op == CompiledExpression.MIN || op == CompiledExpression.MAX;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mycalculator.logic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class represents a bounded cache of compiled expressions keyed by their text.
+ * Entries are split over independently locked segments, each evicting its least recently used entry,
+ * so threads looking up different expressions rarely contend.
+ */
+public final class ExpressionCache {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Parser parser;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new ExpressionCache.
+     *
+     * @param parser the parser used to compile expressions that are not cached yet
+     * @param maximumSize the maximum number of cached expressions
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    public ExpressionCache(Parser parser, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Invalid cache size: " + maximumSize);
+        }
+        this.parser = parser;
+        int count = Math.min(MAX_SEGMENTS, maximumSize);
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the compiled form of the given expression, compiling and caching it on a miss.
+     *
+     * @param expression the expression
+     * @return the compiled expression
+     * @throws InterpreterException if the expression cannot be parsed
+     */
+    public CompiledExpression get(String expression) throws InterpreterException {
+        Segment segment = segmentFor(expression);
+        CompiledExpression compiled = segment.find(expression);
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+        misses.increment();
+        compiled = parser.compile(expression);
+        segment.store(expression, compiled);
+        return compiled;
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.removeAll();
+        }
+    }
+
+    /**
+     * @return the number of cached expressions
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.count();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of lookups that found a cached expression
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to compile the expression
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries removed to make room for new ones
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor(String expression) {
+        int h = expression.hashCode();
+        return segments[Math.floorMod(h ^ (h >>> 16), segments.length)];
+    }
+
+    private final class Segment extends LinkedHashMap<String, CompiledExpression> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        synchronized CompiledExpression find(String expression) {
+            return get(expression);
+        }
+
+        synchronized void store(String expression, CompiledExpression compiled) {
+            putIfAbsent(expression, compiled);
+        }
+
+        synchronized void removeAll() {
+            clear();
+        }
+
+        synchronized int count() {
+            return size();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
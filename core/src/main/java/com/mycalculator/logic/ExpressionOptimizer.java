@@ -0,0 +1,153 @@
+package com.mycalculator.logic;
+
+import java.util.Arrays;
+
+/**
+ * Simplifies a parsed expression before it is evaluated.
+ * Subexpressions made only of literals are computed once, and identities that hold for every
+ * IEEE 754 value, including NaN, infinities and negative zero, are applied. Identities such as
+ * {@code x + 0} (wrong for -0), {@code x * 0} or {@code x - x} (wrong for NaN and infinities) are not.
+ * A division or remainder by zero is never folded, so evaluation still reports it, and an operand
+ * that may divide by zero is never dropped.
+ */
+final class ExpressionOptimizer {
+    private final CompiledExpression source;
+    private final ExpressionBuilder code = new ExpressionBuilder();
+    private boolean[] mayFail = new boolean[16]; // Whether an emitted instruction may divide by zero
+
+    private ExpressionOptimizer(CompiledExpression source) {
+        this.source = source;
+    }
+
+    static CompiledExpression optimize(CompiledExpression expression) throws InterpreterException {
+        return new ExpressionOptimizer(expression).run();
+    }
+
+    private CompiledExpression run() throws InterpreterException {
+        int[] map = new int[source.result() + 1];
+        for (int i = 0; i <= source.result(); i++) {
+            int op = source.op(i);
+            map[i] = switch (op) {
+                case CompiledExpression.CONST -> code.constant(source.constant(i));
+                case CompiledExpression.VAR -> code.variable(source.lhs(i));
+                case CompiledExpression.NEG -> negate(map[source.lhs(i)]);
+                default -> CompiledExpression.isUnary(op) ? function(op, map[source.lhs(i)])
+                        : binary(op, map[source.lhs(i)], map[source.rhs(i)]);
+            };
+        }
+        return code.build(map[source.result()]);
+    }
+
+    private int negate(int x) {
+        if (code.isConstant(x)) {
+            return code.constant(-code.constantValue(x));
+        }
+        if (isNegation(x)) {
+            return code.lhs(x); // -(-x) is x
+        }
+        return track(code.unary(CompiledExpression.NEG, x), mayFail(x));
+    }
+
+    private int function(int op, int x) throws InterpreterException {
+        if (code.isConstant(x)) {
+            return code.constant(CompiledExpression.apply(op, code.constantValue(x), code.constantValue(x)));
+        }
+        if (op == CompiledExpression.ABS && isNegation(x)) {
+            x = code.lhs(x); // abs(-x) is abs(x)
+        }
+        return track(code.unary(op, x), mayFail(x));
+    }
+
+    private int binary(int op, int l, int r) throws InterpreterException {
+        boolean division = op == CompiledExpression.DIV || op == CompiledExpression.MOD;
+        if (code.isConstant(l) && code.isConstant(r) && !(division && code.constantValue(r) == 0.0)) {
+            return code.constant(CompiledExpression.apply(op, code.constantValue(l), code.constantValue(r)));
+        }
+
+        switch (op) {
+            case CompiledExpression.ADD:
+                if (isNegation(r)) {
+                    return emit(CompiledExpression.SUB, l, code.lhs(r)); // x + -y is x - y
+                }
+                if (isConstant(r, -0.0)) {
+                    return l;
+                }
+                break;
+            case CompiledExpression.SUB:
+                if (isNegation(r)) {
+                    return emit(CompiledExpression.ADD, l, code.lhs(r)); // x - -y is x + y
+                }
+                if (isConstant(r, 0.0)) {
+                    return l;
+                }
+                break;
+            case CompiledExpression.MUL:
+                if (isConstant(r, 1.0)) {
+                    return l;
+                }
+                if (isConstant(l, 1.0)) {
+                    return r;
+                }
+                if (isConstant(r, -1.0)) {
+                    return negate(l);
+                }
+                if (isConstant(l, -1.0)) {
+                    return negate(r);
+                }
+                if (isNegation(l) && isNegation(r)) {
+                    return emit(CompiledExpression.MUL, code.lhs(l), code.lhs(r));
+                }
+                break;
+            case CompiledExpression.DIV:
+                if (isConstant(r, 1.0)) {
+                    return l;
+                }
+                if (isConstant(r, -1.0)) {
+                    return negate(l);
+                }
+                if (isNegation(l) && isNegation(r)) {
+                    return emit(CompiledExpression.DIV, code.lhs(l), code.lhs(r));
+                }
+                break;
+            case CompiledExpression.POW:
+                if (isConstant(r, 1.0)) {
+                    return l;
+                }
+                if (isConstant(r, 0.0) && !mayFail(l)) {
+                    return code.constant(1.0);
+                }
+                break;
+            default:
+                break;
+        }
+        return emit(op, l, r);
+    }
+
+    private int emit(int op, int l, int r) {
+        boolean division = op == CompiledExpression.DIV || op == CompiledExpression.MOD;
+        boolean fails = mayFail(l) || mayFail(r) || (division && !(code.isConstant(r) && code.constantValue(r) != 0.0));
+        return track(code.binary(op, l, r), fails);
+    }
+
+    private int track(int instruction, boolean fails) {
+        if (instruction >= mayFail.length) {
+            mayFail = Arrays.copyOf(mayFail, Math.max(instruction + 1, mayFail.length * 2));
+        }
+        mayFail[instruction] = fails;
+        return instruction;
+    }
+
+    private boolean mayFail(int instruction) {
+        return instruction < mayFail.length && mayFail[instruction];
+    }
+
+    private boolean isNegation(int instruction) {
+        return code.op(instruction) == CompiledExpression.NEG;
+    }
+
+    // Compares bit patterns, so 0.0 and -0.0 are different constants here
+    private boolean isConstant(int instruction, double value) {
+        return code.isConstant(instruction)
+                && Double.doubleToRawLongBits(code.constantValue(instruction)) == Double.doubleToRawLongBits(value);
+    }
+}
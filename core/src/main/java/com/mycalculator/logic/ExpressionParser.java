@@ -0,0 +1,578 @@
+package com.mycalculator.logic;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Holds the state of a single parse: the program text, the current position and the current token.
+ * A new instance is created for every call to {@link Parser#compile(String)}, so parsing never shares
+ * mutable state between threads. The program is read in place from a char array, a CharSequence or an
+ * ASCII ByteBuffer, so parsing a slice of a larger buffer copies nothing.
+ */
+final class ExpressionParser {
+
+    private static final char EOP = '\0';
+    private static final int DELIMITER = 1;
+    private static final int VARIABLE = 2;
+    private static final int NUMBER = 3;
+    private static final int NONE = 0;
+    private static final int LE = 4;  // Less than or equal to
+    private static final int GE = 5;  // Greater than or equal to
+    private static final int NE = 6;  // Not equal to
+    private static final int EOL = 7; // End of line
+    private static final int COMMAND = 8; // Command
+    private static final int QUOTEDSTR = 9; // Quoted string
+    private static final int UNKNCOM = 10; // Unknown command
+
+    // Frames of the parse stack: binary operator levels, from the loosest to the tightest, then prefixes
+    private static final int RELATIONAL = 1; // Comparisons
+    private static final int ADDITIVE = 2;
+    private static final int MULTIPLICATIVE = 3;
+    private static final int POWER = 4;
+    private static final int NEGATE = 5; // Unary minus
+    private static final int ROOT = 6; // √ without parentheses
+    private static final int GROUP = 7; // Parentheses
+    private static final int CALL = 8; // Arguments of a function
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final boolean[] DELIMS = new boolean[128];
+
+    static {
+        for (char c : " \r,;<>+-/*%^=()".toCharArray()) {
+            DELIMS[c] = true;
+        }
+    }
+
+    private final Environment environment;
+    private final char[] chars; // The program is read from exactly one of these, without copying it
+    private final CharSequence sequence;
+    private final ByteBuffer bytes;
+    private final int progStart;
+    private final int progEnd;
+    private final ExpressionBuilder code = new ExpressionBuilder();
+    private int progIdx;
+    private int tokType;
+    private char tokOp; // Operator of a delimiter, otherwise the first character of the token
+    private int tokStart;
+    private int tokEnd;
+    private int kwToken; // Instruction of a built-in function, otherwise UNKNCOM
+    private int tokens; // Tokens read so far
+    private int[] frames = new int[16];
+    private int[] lefts = new int[16]; // Left operand of a level frame, or the arguments so far of a call
+    private int[] pending = new int[16]; // Operator of a level frame, or the function of a call
+    private int depth;
+
+    ExpressionParser(Environment environment, char[] prog, int offset, int length) {
+        this(environment, prog, null, null, offset, length);
+    }
+
+    ExpressionParser(Environment environment, CharSequence prog, int offset, int length) {
+        this(environment, null, prog, null, offset, length);
+    }
+
+    // Bytes are read as ASCII, so each byte is one character; the buffer's position is not used
+    ExpressionParser(Environment environment, ByteBuffer prog, int offset, int length) {
+        this(environment, null, null, prog, offset, length);
+    }
+
+    private ExpressionParser(Environment environment, char[] chars, CharSequence sequence, ByteBuffer bytes,
+                             int offset, int length) {
+        this.environment = environment;
+        this.chars = chars;
+        this.sequence = sequence;
+        this.bytes = bytes;
+        this.progStart = offset;
+        this.progEnd = offset + length;
+    }
+
+    CompiledExpression parse() throws InterpreterException {
+        int result;
+        progIdx = progStart;
+        getToken();
+
+        if (tokOp == EOP) {
+            Parser.handleErr(Parser.NOEXP);  // No expression
+        }
+
+        // Start analyzing the expression
+        result = expression();
+        putBack();
+        return code.build(result);
+    }
+
+    /**
+     * Parses a whole expression with an explicit stack instead of recursion, so neither the nesting depth
+     * nor the length of an expression is limited by the call stack.
+     * Every operand is read by {@link #primary()}, which pushes a frame for each prefix it passes: a sign,
+     * a parenthesis, a function call or a √. The operand is then handed down the stack, and each frame
+     * either consumes it and asks for another operand, or completes and hands on its own result.
+     * Binary operators use precedence climbing: a level frame takes every operator that binds at least as
+     * tightly as its level, and parses the right operand in a frame one level higher, or the same level
+     * for the right-associative comparisons and powers. This accepts the same language, reports the same
+     * errors and emits the same instructions in the same order as a recursive descent would.
+     */
+    private int expression() throws InterpreterException {
+        push(RELATIONAL, -1, -1);
+        int value = primary();
+        while (depth > 0) {
+            int top = depth - 1;
+            switch (frames[top]) {
+                case NEGATE:
+                    value = code.unary(CompiledExpression.NEG, value);
+                    depth--;
+                    break;
+                case ROOT:
+                    value = code.unary(CompiledExpression.SQRT, value);
+                    depth--;
+                    break;
+                case GROUP:
+                    if (tokOp != ')') {
+                        Parser.handleErr(Parser.UNBALPARENS);
+                    }
+                    getToken();
+                    depth--;
+                    break;
+                case CALL:
+                    int function = pending[top];
+                    if (function == CompiledExpression.MIN || function == CompiledExpression.MAX) {
+                        if (lefts[top] < 0) {
+                            if (tokOp != ',') { // Two or more arguments
+                                Parser.handleErr(Parser.SYNTAX);
+                            }
+                        } else {
+                            value = code.binary(function, lefts[top], value);
+                        }
+                        if (tokOp == ',') {
+                            lefts[top] = value;
+                            getToken();
+                            push(ADDITIVE, -1, -1);
+                            value = primary();
+                            break;
+                        }
+                    } else {
+                        if (tokOp == ',') {
+                            Parser.handleErr(Parser.SYNTAX);
+                        }
+                        value = code.unary(function, value);
+                    }
+                    if (tokOp != ')') {
+                        Parser.handleErr(Parser.UNBALPARENS);
+                    }
+                    getToken();
+                    depth--;
+                    break;
+                default: // A level frame
+                    if (pending[top] >= 0) {
+                        value = code.binary(pending[top], lefts[top], value);
+                    }
+                    int op = binaryOperator(tokOp);
+                    if (op >= 0 && level(op) >= frames[top]) {
+                        lefts[top] = value;
+                        pending[top] = op;
+                        getToken();
+                        boolean rightAssociative = (level(op) == RELATIONAL || level(op) == POWER);
+                        push(rightAssociative ? level(op) : level(op) + 1, -1, -1);
+                        value = primary();
+                    } else {
+                        depth--;
+                    }
+                    break;
+            }
+        }
+        return value;
+    }
+
+    // Reads an optional sign and the prefixes of an operand up to its number or variable
+    private int primary() throws InterpreterException {
+        while (true) {
+            if ((tokType == DELIMITER) && (tokOp == '+' || tokOp == '-')) { // Only one sign
+                if (tokOp == '-') {
+                    push(NEGATE, -1, -1);
+                }
+                getToken();
+            }
+            if (tokOp == '(') {
+                getToken();
+                push(GROUP, -1, -1);
+                push(ADDITIVE, -1, -1);
+            } else if (tokType == COMMAND) {
+                int function = kwToken;
+                char name = tokOp;
+                getToken();
+                if (name == '√' && tokOp != '(') { // √ also works as a prefix operator
+                    push(ROOT, -1, -1);
+                    continue;
+                }
+                if (tokOp != '(') {
+                    Parser.handleErr(Parser.SYNTAX);
+                }
+                getToken();
+                push(CALL, -1, function);
+                push(ADDITIVE, -1, -1);
+            } else {
+                return atom();
+            }
+        }
+    }
+
+    private void push(int frame, int left, int op) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+            lefts = Arrays.copyOf(lefts, depth * 2);
+            pending = Arrays.copyOf(pending, depth * 2);
+        }
+        frames[depth] = frame;
+        lefts[depth] = left;
+        pending[depth] = op;
+        depth++;
+    }
+
+    // Instruction of a binary operator token, or -1 if the token is none
+    private static int binaryOperator(char op) {
+        switch (op) {
+            case '<':
+                return CompiledExpression.LT;
+            case '>':
+                return CompiledExpression.GT;
+            case '=':
+                return CompiledExpression.EQ;
+            case (char) NE:
+                return CompiledExpression.NE;
+            case (char) LE:
+                return CompiledExpression.LE;
+            case (char) GE:
+                return CompiledExpression.GE;
+            case '+':
+                return CompiledExpression.ADD;
+            case '-':
+                return CompiledExpression.SUB;
+            case '*':
+                return CompiledExpression.MUL;
+            case '/': // Division by zero is checked when the expression is evaluated
+                return CompiledExpression.DIV;
+            case '%':
+                return CompiledExpression.MOD;
+            case '^':
+                return CompiledExpression.POW;
+            default:
+                return -1;
+        }
+    }
+
+    private static int level(int op) {
+        switch (op) {
+            case CompiledExpression.ADD:
+            case CompiledExpression.SUB:
+                return ADDITIVE;
+            case CompiledExpression.MUL:
+            case CompiledExpression.DIV:
+            case CompiledExpression.MOD:
+                return MULTIPLICATIVE;
+            case CompiledExpression.POW:
+                return POWER;
+            default:
+                return RELATIONAL;
+        }
+    }
+
+    private int atom() throws InterpreterException {
+        int result = 0;
+
+        switch (tokType) {
+            case NUMBER:
+                result = code.constant(parseNumber(tokStart, tokEnd));
+                getToken();
+                break;
+            case VARIABLE:
+                int slot = findVar(tokStart, tokEnd);
+                result = (slot == Environment.UNBOUND) ? code.constant(0.0) : code.variable(slot);
+                getToken();
+                break;
+            default:
+                Parser.handleErr(Parser.SYNTAX);
+                break;
+        }
+        return result;
+    }
+
+    private int findVar(int start, int end) throws InterpreterException {
+        char vname = charAt(start);
+        if (!Character.isLetter(vname)) {
+            Parser.handleErr(Parser.SYNTAX);
+            return 0;
+        }
+        if (end - start == 1 && vname < 128) { // A to Z always take the first slots
+            return Character.toUpperCase(vname) - 'A';
+        }
+        int slot = environment.assign(text(start, end));
+        if (slot == -1) {
+            Parser.handleErr(Parser.TOOMANYVARS);
+        }
+        return slot;
+    }
+
+    private double parseNumber(int start, int end) throws InterpreterException {
+        // Fast path for plain decimals: with at most 15 significant digits and a power of ten
+        // up to 10^22 both operands are exact, so one multiplication or division rounds
+        // exactly like Double.parseDouble does.
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        int i = start;
+        while (i < end && isDigit(charAt(i))) {
+            mantissa = mantissa * 10 + (charAt(i++) - '0');
+            digits++;
+        }
+        if (i < end && charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(charAt(i))) {
+                mantissa = mantissa * 10 + (charAt(i++) - '0');
+                digits++;
+                scale--;
+            }
+        }
+        if (i < end && (charAt(i) == 'e' || charAt(i) == 'E') && i + 1 < end) {
+            int exponent = 0;
+            int j = i + 1;
+            while (j < end && isDigit(charAt(j)) && exponent < 1000) {
+                exponent = exponent * 10 + (charAt(j++) - '0');
+            }
+            if (j == end) {
+                scale += exponent;
+                i = j;
+            }
+        }
+        if (i == end && digits <= 15) {
+            if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+                return mantissa * POWERS_OF_TEN[scale];
+            }
+            if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+                return mantissa / POWERS_OF_TEN[-scale];
+            }
+        }
+
+        // Anything else (long mantissas, huge exponents, suffixes like "d") is left to the JDK
+        try {
+            return Double.parseDouble(text(start, end));
+        } catch (NumberFormatException exc) {
+            Parser.handleErr(Parser.SYNTAX);
+            return 0.0;
+        }
+    }
+
+    private void putBack() {
+        if (tokOp == EOP) {
+            return;
+        }
+        progIdx = tokStart;
+    }
+
+    int tokenCount() {
+        return tokens;
+    }
+
+    // Start of the current token relative to the expression, which is where an error stopped parsing
+    int errorPosition() {
+        return tokStart - progStart;
+    }
+
+    private void getToken() throws InterpreterException {
+        char ch;
+        tokType = NONE;
+        tokOp = EOP;
+        kwToken = UNKNCOM;
+
+        if (progIdx >= progEnd) { // End of program?
+            tokStart = tokEnd = progEnd;
+            return;
+        }
+
+        while (progIdx < progEnd && isSpaceOrTab(charAt(progIdx))) {
+            progIdx++;
+        }
+
+        tokStart = progIdx;
+        tokens++;
+        if (progIdx == progEnd) {
+            tokEnd = progIdx;
+            tokType = DELIMITER;
+            return;
+        }
+
+        if (charAt(progIdx) == '\r') { // Handle '\r' character
+            progIdx = Math.min(progIdx + 2, progEnd);
+            tokEnd = progIdx;
+            kwToken = EOL;
+            tokOp = '\r';
+            return;
+        }
+
+        ch = charAt(progIdx);
+        if (ch == '<' || ch == '>') {
+            if (progIdx + 1 == progEnd) {
+                Parser.handleErr(Parser.SYNTAX);
+            }
+
+            switch (ch) {
+                case '<':
+                    if (charAt(progIdx + 1) == '>') {
+                        progIdx += 2;
+                        tokOp = (char) NE;
+                    } else if (charAt(progIdx + 1) == '=') {
+                        progIdx += 2;
+                        tokOp = (char) LE;
+                    } else {
+                        progIdx++;
+                        tokOp = '<';
+                    }
+                    break;
+                case '>':
+                    if (charAt(progIdx + 1) == '=') {
+                        progIdx += 2;
+                        tokOp = (char) GE;
+                    } else {
+                        progIdx++;
+                        tokOp = '>';
+                    }
+                    break;
+            }
+            tokEnd = progIdx;
+            tokType = DELIMITER;
+            return;
+        }
+
+        if (ch == '√') { // Square root, the only function without a name
+            progIdx++;
+            tokOp = ch;
+            tokType = COMMAND;
+            kwToken = CompiledExpression.SQRT;
+        } else if (isDelim(ch)) { // Operator
+            progIdx++;
+            tokOp = ch;
+            tokType = DELIMITER;
+        } else if (Character.isLetter(ch)) { // Keyword or variable
+            while (progIdx < progEnd && !isDelim(charAt(progIdx))) {
+                progIdx++;
+            }
+            tokOp = ch;
+
+            kwToken = lookUp(tokStart, progIdx);
+            if (kwToken == UNKNCOM) {
+                tokType = VARIABLE;
+            } else {
+                tokType = COMMAND;
+            }
+        } else if (Character.isDigit(ch)) { // Number
+            while (progIdx < progEnd && !isDelim(charAt(progIdx))) {
+                progIdx++;
+            }
+            tokOp = ch;
+            tokType = NUMBER;
+        } else if (ch == '"') { // Quoted string
+            progIdx++;
+            tokStart = progIdx;
+            while (progIdx < progEnd && charAt(progIdx) != '"' && charAt(progIdx) != '\r') {
+                progIdx++;
+            }
+            if (progIdx == progEnd || charAt(progIdx) == '\r') {
+                Parser.handleErr(Parser.MISSINGQUOTE);
+            }
+            tokEnd = progIdx++;
+            tokOp = '"';
+            tokType = QUOTEDSTR;
+            return;
+        } else { // Unknown character
+            tokEnd = tokStart;
+            return;
+        }
+        tokEnd = progIdx;
+    }
+
+    private char charAt(int index) {
+        if (chars != null) {
+            return chars[index];
+        }
+        if (sequence != null) {
+            return sequence.charAt(index);
+        }
+        return (char) (bytes.get(index) & 0xFF);
+    }
+
+    // Copies part of the program, only for names and unusual numbers
+    private String text(int start, int end) {
+        if (chars != null) {
+            return new String(chars, start, end - start);
+        }
+        if (sequence != null) {
+            return sequence.subSequence(start, end).toString();
+        }
+        StringBuilder text = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            text.append(charAt(i));
+        }
+        return text.toString();
+    }
+
+    private boolean isDelim(char c) {
+        return (c < DELIMS.length && DELIMS[c]) || c == '√';
+    }
+
+    private boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private boolean isSpaceOrTab(char c) {
+        return (c == ' ' || c == '\t');
+    }
+
+    // Resolves the name of a built-in function, ignoring case, by its length and first letter
+    private int lookUp(int start, int end) {
+        switch (end - start) {
+            case 2:
+                if (matches(start, "tg")) {
+                    return CompiledExpression.TAN;
+                }
+                break;
+            case 3:
+                switch (Character.toLowerCase(charAt(start))) {
+                    case 'a':
+                        return matches(start, "abs") ? CompiledExpression.ABS : UNKNCOM;
+                    case 'c':
+                        if (matches(start, "cos")) {
+                            return CompiledExpression.COS;
+                        }
+                        return matches(start, "ctg") ? CompiledExpression.COT : UNKNCOM;
+                    case 'e':
+                        return matches(start, "exp") ? CompiledExpression.EXP : UNKNCOM;
+                    case 'l':
+                        return matches(start, "log") ? CompiledExpression.LOG : UNKNCOM;
+                    case 'm':
+                        if (matches(start, "min")) {
+                            return CompiledExpression.MIN;
+                        }
+                        return matches(start, "max") ? CompiledExpression.MAX : UNKNCOM;
+                    case 's':
+                        return matches(start, "sin") ? CompiledExpression.SIN : UNKNCOM;
+                }
+                break;
+            case 4:
+                if (matches(start, "sqrt")) {
+                    return CompiledExpression.SQRT;
+                }
+                break;
+        }
+        return UNKNCOM;
+    }
+
+    private boolean matches(int start, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase(charAt(start + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
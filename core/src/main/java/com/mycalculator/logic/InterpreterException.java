@@ -0,0 +1,26 @@
+package com.mycalculator.logic;
+
+/**
+ * Thrown when an expression cannot be parsed or evaluated.
+ * The parser throws one preallocated instance per kind of error, without a stack trace, so rejecting
+ * invalid input costs about as much as accepting valid input. Callers that need the position of an
+ * error should use {@link Parser#tryEvaluate(String, double[])} instead.
+ */
+public class InterpreterException extends Exception {
+    private final int code;
+
+    public InterpreterException(String message) {
+        super(message);
+        this.code = 0;
+    }
+
+    // Shared instance for one error code: no stack trace, no suppressed exceptions
+    InterpreterException(int code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    int code() {
+        return code;
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycalculator.logic;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class counts durations in buckets of powers of two nanoseconds.
+ * Recording is a single striped increment, so many threads can record at once without contention,
+ * and percentiles are accurate to within a factor of two, which is enough to spot slow expressions.
+ */
+public final class LatencyHistogram {
+    private final LongAdder[] buckets = new LongAdder[64]; // Bucket b counts durations below 2^b ns
+
+    LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        buckets[64 - Long.numberOfLeadingZeros(Math.max(0, nanos))].increment();
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile, at most twice the exact value.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return (i == 63) ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return 0;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count() + ", p50<=" + percentile(50) + "ns, p99<=" + percentile(99)
+                + "ns, max<=" + percentile(100) + "ns";
+    }
+}
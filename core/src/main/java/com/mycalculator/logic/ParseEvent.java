@@ -0,0 +1,27 @@
+package com.mycalculator.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for the parsing and optimization of one expression.
+ */
+@Name("com.mycalculator.Parse")
+@Label("Parse")
+@Category("Calculator")
+@Description("Parsing and optimization of one expression")
+@StackTrace(false)
+final class ParseEvent extends Event {
+    @Label("Expression Length")
+    int length;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Error")
+    String error;
+}
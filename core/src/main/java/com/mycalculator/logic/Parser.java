@@ -0,0 +1,219 @@
+package com.mycalculator.logic;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Parses and evaluates arithmetic expressions.
+ * Every call parses with its own {@link ExpressionParser} and variable values are passed in,
+ * so a single instance can be shared between threads without locking.
+ * Variable names are resolved to slots of the parser's {@link Environment}.
+ */
+public class Parser {
+
+    static final int SYNTAX = 11; // Syntax error
+    static final int NOEXP = 12; // No expression
+    static final int DIVBYZERO = 13; // Division by zero
+    static final int UNBALPARENS = 14; // Unbalanced parentheses
+    static final int MISSINGQUOTE = 15; // Missing quote
+    static final int NOROOT = 16; // No root found
+    static final int TOOMANYVARS = 17; // Every slot of the environment is taken
+    static final int NUMVARS = 26; // Number of variables
+
+    // Thrown for every error of each kind; they carry no stack trace, so sharing them is safe
+    private static final InterpreterException[] ERRORS = new InterpreterException[TOOMANYVARS - SYNTAX + 1];
+
+    static {
+        for (int code = SYNTAX; code <= TOOMANYVARS; code++) {
+            ERRORS[code - SYNTAX] = new InterpreterException(code, errorMessage(code));
+        }
+    }
+
+    private final double[] vars = new double[NUMVARS];
+    private final Environment environment;
+
+    public Parser() {
+        this(new Environment());
+    }
+
+    public Parser(Environment environment) {
+        Arrays.fill(vars, 0.0);
+        this.environment = environment;
+    }
+
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    public double evaluate(String exp) throws InterpreterException {
+        return compile(exp).evaluate(vars);
+    }
+
+    public double evaluate(String exp, double[] vars) throws InterpreterException {
+        return compile(exp).evaluate(vars);
+    }
+
+    public double evaluate(CharSequence exp, int offset, int length, double[] vars) throws InterpreterException {
+        return compile(exp, offset, length).evaluate(vars);
+    }
+
+    public double evaluate(char[] exp, int offset, int length, double[] vars) throws InterpreterException {
+        return compile(exp, offset, length).evaluate(vars);
+    }
+
+    public double evaluate(ByteBuffer exp, int offset, int length, double[] vars) throws InterpreterException {
+        return compile(exp, offset, length).evaluate(vars);
+    }
+
+    public double evaluate(String exp, Map<String, Double> values) throws InterpreterException {
+        CompiledExpression compiled = compile(exp);
+        return compiled.evaluate(environment.values(values));
+    }
+
+    public CompiledExpression derivative(String exp, String variable) throws InterpreterException {
+        CompiledExpression compiled = compile(exp);
+        // A name without a slot does not occur in the expression; -1 matches no variable, so the derivative is zero
+        return compiled.derivative(environment.find(variable));
+    }
+
+    public void evaluateBatch(String exp, Map<Character, double[]> columns, double[] out) throws InterpreterException {
+        double[][] slots = new double[NUMVARS][];
+        for (Map.Entry<Character, double[]> column : columns.entrySet()) {
+            int slot = Character.toUpperCase(column.getKey()) - 'A';
+            if (slot < 0 || slot >= NUMVARS) {
+                throw new IllegalArgumentException("Invalid variable: " + column.getKey());
+            }
+            slots[slot] = column.getValue();
+        }
+        compile(exp).evaluateBatch(slots, out);
+    }
+
+    public CompiledExpression compile(String exp) throws InterpreterException {
+        return compile(exp, 0, exp.length());
+    }
+
+    /**
+     * Parses part of a character sequence in place, without copying it into a String or an array.
+     *
+     * @param exp the sequence holding the expression
+     * @param offset the index of the first character of the expression
+     * @param length the number of characters of the expression
+     * @return the compiled expression
+     * @throws InterpreterException if the expression is invalid
+     * @throws IndexOutOfBoundsException if the range is outside the sequence
+     */
+    public CompiledExpression compile(CharSequence exp, int offset, int length) throws InterpreterException {
+        Objects.checkFromIndexSize(offset, length, exp.length());
+        return compile(new ExpressionParser(environment, exp, offset, length), length);
+    }
+
+    public CompiledExpression compile(char[] prog, int offset, int length) throws InterpreterException {
+        Objects.checkFromIndexSize(offset, length, prog.length);
+        return compile(new ExpressionParser(environment, prog, offset, length), length);
+    }
+
+    /**
+     * Parses part of a buffer of ASCII text in place. The range is given by absolute indexes,
+     * so the buffer's position is neither used nor changed.
+     *
+     * @param exp the buffer holding the expression, one byte per character
+     * @param offset the index of the first byte of the expression
+     * @param length the number of bytes of the expression
+     * @return the compiled expression
+     * @throws InterpreterException if the expression is invalid
+     * @throws IndexOutOfBoundsException if the range extends beyond the buffer's limit
+     */
+    public CompiledExpression compile(ByteBuffer exp, int offset, int length) throws InterpreterException {
+        Objects.checkFromIndexSize(offset, length, exp.limit());
+        return compile(new ExpressionParser(environment, exp, offset, length), length);
+    }
+
+    /**
+     * Evaluates an expression without throwing: an invalid expression or a failed evaluation is returned
+     * as an error with its code, message and, for parse errors, the position where parsing stopped.
+     *
+     * @param exp the expression
+     * @param vars the values of the variables, indexed by their {@link Environment} slots
+     * @return the value or the error
+     */
+    public EvaluationResult tryEvaluate(String exp, double[] vars) {
+        ExpressionParser expressionParser = new ExpressionParser(environment, exp, 0, exp.length());
+        CompiledExpression compiled;
+        try {
+            compiled = compile(expressionParser, exp.length());
+        } catch (InterpreterException e) {
+            return EvaluationResult.failure(e.code(), expressionParser.errorPosition());
+        }
+        try {
+            return EvaluationResult.success(compiled.evaluate(vars));
+        } catch (InterpreterException e) {
+            return EvaluationResult.failure(e.code(), -1);
+        }
+    }
+
+    public EvaluationResult tryEvaluate(String exp) {
+        return tryEvaluate(exp, vars);
+    }
+
+    private CompiledExpression compile(ExpressionParser expressionParser, int length) throws InterpreterException {
+        if (!ParserMetrics.isRecording()) {
+            CompiledExpression compiled = ExpressionOptimizer.optimize(expressionParser.parse());
+            compiled.setSource(length, expressionParser.tokenCount());
+            return compiled;
+        }
+
+        ParseEvent event = new ParseEvent();
+        ErrorEvent error = new ErrorEvent();
+        event.begin();
+        error.begin();
+        long start = System.nanoTime();
+        try {
+            CompiledExpression compiled = ExpressionOptimizer.optimize(expressionParser.parse());
+            compiled.setSource(length, expressionParser.tokenCount());
+            return compiled;
+        } catch (InterpreterException e) {
+            event.error = e.getMessage();
+            error.report(e, length, expressionParser.tokenCount());
+            throw e;
+        } finally {
+            ParserMetrics.recordParse(System.nanoTime() - start);
+            event.length = length;
+            event.tokens = expressionParser.tokenCount();
+            event.commit();
+        }
+    }
+
+    static void handleErr(int error) throws InterpreterException {
+        InterpreterException exception = (error >= SYNTAX && error <= TOOMANYVARS)
+                ? ERRORS[error - SYNTAX] : new InterpreterException(error, errorMessage(error));
+        // Counted here, where every error passes; the ErrorEvent is committed by the parse or
+        // evaluation that failed, which knows the expression
+        if (ParserMetrics.isRecording()) {
+            ParserMetrics.recordError(error);
+        }
+        throw exception;
+    }
+
+    static String errorMessage(int error) {
+        switch (error) {
+            case SYNTAX:
+                return "Syntax error";
+            case NOEXP:
+                return "No expression present";
+            case DIVBYZERO:
+                return "Division by zero";
+            case UNBALPARENS:
+                return "Unbalanced parentheses";
+            case MISSINGQUOTE:
+                return "Missing quote";
+            case NOROOT:
+                return "No root found";
+            case TOOMANYVARS:
+                return "Too many variables";
+            default:
+                return "Unknown error: " + error;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.mycalculator.logic;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects counters and latency histograms of parsing and evaluation for the whole process.
+ * Collection is off by default and is switched on with {@link #setEnabled(boolean)} or the
+ * {@code mycalculator.metrics} system property. While it is on, parsing, evaluation and errors also emit
+ * flight recorder events, which a running recording keeps if its settings enable them. While it is off,
+ * parsing and evaluation only read one flag: they do no timing and never touch the flight recorder,
+ * whose classes take hundreds of milliseconds to initialize.
+ */
+public final class ParserMetrics {
+    private static final LongAdder parses = new LongAdder();
+    private static final LongAdder evaluations = new LongAdder();
+    private static final LongAdder[] errors = new LongAdder[Parser.TOOMANYVARS - Parser.SYNTAX + 2]; // Last one: others
+    private static final LatencyHistogram parseLatency = new LatencyHistogram();
+    private static final LatencyHistogram evaluateLatency = new LatencyHistogram();
+
+    private static volatile boolean enabled = Boolean.getBoolean("mycalculator.metrics");
+
+    static {
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+    }
+
+    private ParserMetrics() {
+    }
+
+    /**
+     * Switches the collection of counters and histograms on or off. Collected values are kept.
+     *
+     * @param on whether to collect
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public static void reset() {
+        parses.reset();
+        evaluations.reset();
+        for (LongAdder error : errors) {
+            error.reset();
+        }
+        parseLatency.reset();
+        evaluateLatency.reset();
+    }
+
+    /**
+     * @return the number of expressions parsed, including those that failed
+     */
+    public static long parseCount() {
+        return parses.sum();
+    }
+
+    /**
+     * @return the number of evaluations, including those that failed
+     */
+    public static long evaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * @return the number of errors raised while parsing or evaluating
+     */
+    public static long errorCount() {
+        long count = 0;
+        for (LongAdder error : errors) {
+            count += error.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @param message the message of an error, such as "Division by zero"
+     * @return the number of errors raised with that message
+     */
+    public static long errorCount(String message) {
+        for (int code = Parser.SYNTAX; code <= Parser.TOOMANYVARS; code++) {
+            if (Parser.errorMessage(code).equals(message)) {
+                return errors[code - Parser.SYNTAX].sum();
+            }
+        }
+        return 0;
+    }
+
+    public static LatencyHistogram parseLatency() {
+        return parseLatency;
+    }
+
+    public static LatencyHistogram evaluateLatency() {
+        return evaluateLatency;
+    }
+
+    // Whether parsing and evaluation need to time themselves and emit events at all
+    static boolean isRecording() {
+        return enabled;
+    }
+
+    static void recordParse(long nanos) {
+        if (enabled) {
+            parses.increment();
+            parseLatency.record(nanos);
+        }
+    }
+
+    static void recordEvaluation(long nanos) {
+        if (enabled) {
+            evaluations.increment();
+            evaluateLatency.record(nanos);
+        }
+    }
+
+    static void recordError(int code) {
+        if (enabled) {
+            int index = code - Parser.SYNTAX;
+            errors[(index >= 0 && index < errors.length - 1) ? index : errors.length - 1].increment();
+        }
+    }
+
+    /**
+     * @return a one-line summary of every counter and histogram
+     */
+    public static String summary() {
+        return "parses=" + parseCount() + " (" + parseLatency + "), evaluations=" + evaluationCount()
+                + " (" + evaluateLatency + "), errors=" + errorCount();
+    }
+}
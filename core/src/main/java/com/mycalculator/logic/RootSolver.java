@@ -0,0 +1,130 @@
+package com.mycalculator.logic;
+
+import java.util.Arrays;
+
+/**
+ * This class finds a root of an expression in one variable while the other variables keep fixed values.
+ * It takes Newton steps with the symbolic derivative of the expression and falls back to a secant step
+ * through the last two estimates when the derivative is zero or cannot be evaluated, or when the Newton
+ * step does not reduce the residual. The expression and its derivative are compiled once, so an iteration
+ * costs a few evaluations and no parsing.
+ */
+public final class RootSolver {
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+    private static final double DEFAULT_TOLERANCE = 1e-12;
+
+    private final CompiledExpression function;
+    private final CompiledExpression derivative;
+    private final int slot;
+    private final int maxIterations;
+    private final double tolerance;
+
+    /**
+     * Constructs a new RootSolver with the default iteration limit and tolerance.
+     *
+     * @param function the expression whose root is searched
+     * @param slot the {@link Environment} slot of the variable to solve for
+     * @throws InterpreterException if the expression cannot be differentiated
+     */
+    public RootSolver(CompiledExpression function, int slot) throws InterpreterException {
+        this(function, slot, DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Constructs a new RootSolver.
+     *
+     * @param function the expression whose root is searched
+     * @param slot the {@link Environment} slot of the variable to solve for
+     * @param maxIterations the number of steps after which the search gives up
+     * @param tolerance the relative change between two estimates at which the search stops
+     * @throws InterpreterException if the expression cannot be differentiated
+     * @throws IllegalArgumentException if the slot or the iteration limit is negative
+     */
+    public RootSolver(CompiledExpression function, int slot, int maxIterations, double tolerance)
+            throws InterpreterException {
+        if (slot < 0 || maxIterations < 0) {
+            throw new IllegalArgumentException("Invalid slot or iteration limit: " + slot + ", " + maxIterations);
+        }
+        this.function = function;
+        this.derivative = function.derivative(slot);
+        this.slot = slot;
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Searches a root with every other variable set to zero.
+     *
+     * @param guess the starting estimate
+     * @return the root
+     * @throws InterpreterException if the expression fails at the starting estimate or no root is found
+     */
+    public double solve(double guess) throws InterpreterException {
+        return solve(new double[0], guess);
+    }
+
+    /**
+     * Searches a root starting from the given estimate.
+     *
+     * @param vars the values of the other variables, indexed by their {@link Environment} slots; not modified
+     * @param guess the starting estimate
+     * @return the root
+     * @throws InterpreterException if the expression fails at the starting estimate or no root is found
+     */
+    public double solve(double[] vars, double guess) throws InterpreterException {
+        double[] point = Arrays.copyOf(vars, Math.max(vars.length, slot + 1));
+        double x = guess;
+        point[slot] = x;
+        double fx = function.evaluate(point);
+        double previous = Double.NaN;
+        double fPrevious = Double.NaN;
+
+        for (int i = 0; i < maxIterations; i++) {
+            if (fx == 0.0) {
+                return x;
+            }
+            double next = x - fx / tryEvaluate(derivative, point, x);
+            double fNext = Double.isFinite(next) ? tryEvaluate(function, point, next) : Double.NaN;
+
+            if (!(Math.abs(fNext) < Math.abs(fx))) { // Newton failed or overshot, try a secant step
+                if (Double.isNaN(previous)) {
+                    previous = x + 1e-4 * Math.max(1.0, Math.abs(x));
+                    fPrevious = tryEvaluate(function, point, previous);
+                }
+                double secant = x - fx * (x - previous) / (fx - fPrevious);
+                double fSecant = Double.isFinite(secant) ? tryEvaluate(function, point, secant) : Double.NaN;
+                if (Math.abs(fSecant) < Math.abs(fNext) || Double.isNaN(fNext)) {
+                    next = secant;
+                    fNext = fSecant;
+                }
+                // Neither step helped, so shorten the better one until it does
+                for (int j = 0; j < 30 && Double.isFinite(next) && !(Math.abs(fNext) < Math.abs(fx)); j++) {
+                    next = x + (next - x) / 2;
+                    fNext = tryEvaluate(function, point, next);
+                }
+            }
+            if (Double.isNaN(fNext)) {
+                break;
+            }
+            if (Math.abs(next - x) <= tolerance * Math.max(1.0, Math.abs(next))) {
+                return next;
+            }
+            previous = x;
+            fPrevious = fx;
+            x = next;
+            fx = fNext;
+        }
+        Parser.handleErr(Parser.NOROOT);
+        return Double.NaN;
+    }
+
+    // Evaluates at the given estimate, with NaN standing for a failed evaluation
+    private double tryEvaluate(CompiledExpression expression, double[] point, double x) {
+        point[slot] = x;
+        try {
+            return expression.evaluate(point);
+        } catch (InterpreterException e) {
+            return Double.NaN;
+        }
+    }
+}
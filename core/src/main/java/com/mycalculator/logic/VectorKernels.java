@@ -0,0 +1,129 @@
+package com.mycalculator.logic;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Applies the instructions of a batch evaluation to whole vector registers with the incubating Vector API.
+ * Only operators whose vector form is exactly the scalar one are handled: arithmetic, comparisons, which
+ * blend 1 and 0 under the comparison mask, min, max, abs and square roots. Powers, remainders and the
+ * other library functions stay scalar, because vector versions of them may round differently.
+ * This class is only loaded when the jdk.incubator.vector module is present, see
+ * {@link CompiledExpression#evaluateBatch(double[][], double[])}.
+ */
+final class VectorKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final DoubleVector ZERO = DoubleVector.zero(SPECIES);
+    private static final DoubleVector ONE = DoubleVector.broadcast(SPECIES, 1.0);
+
+    private VectorKernels() {
+    }
+
+    static boolean supports(int op) {
+        switch (op) {
+            case CompiledExpression.NEG:
+            case CompiledExpression.ADD:
+            case CompiledExpression.SUB:
+            case CompiledExpression.MUL:
+            case CompiledExpression.DIV:
+            case CompiledExpression.LT:
+            case CompiledExpression.GT:
+            case CompiledExpression.EQ:
+            case CompiledExpression.NE:
+            case CompiledExpression.LE:
+            case CompiledExpression.GE:
+            case CompiledExpression.SQRT:
+            case CompiledExpression.ABS:
+            case CompiledExpression.MIN:
+            case CompiledExpression.MAX:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean containsZero(double[] values, int n) {
+        int bound = SPECIES.loopBound(n);
+        for (int k = 0; k < bound; k += SPECIES.length()) {
+            if (load(values, k).compare(VectorOperators.EQ, 0.0).anyTrue()) {
+                return true;
+            }
+        }
+        for (int k = bound; k < n; k++) {
+            if (values[k] == 0.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes {@code v[k] = l[k] op r[k]} for the first n rows. Divisors must have been checked already.
+     */
+    static void apply(int op, double[] l, double[] r, double[] v, int n) throws InterpreterException {
+        int bound = SPECIES.loopBound(n);
+        int step = SPECIES.length();
+        switch (op) {
+            case CompiledExpression.NEG:
+                for (int k = 0; k < bound; k += step) load(l, k).neg().intoArray(v, k);
+                break;
+            case CompiledExpression.ADD:
+                for (int k = 0; k < bound; k += step) load(l, k).add(load(r, k)).intoArray(v, k);
+                break;
+            case CompiledExpression.SUB:
+                for (int k = 0; k < bound; k += step) load(l, k).sub(load(r, k)).intoArray(v, k);
+                break;
+            case CompiledExpression.MUL:
+                for (int k = 0; k < bound; k += step) load(l, k).mul(load(r, k)).intoArray(v, k);
+                break;
+            case CompiledExpression.DIV:
+                for (int k = 0; k < bound; k += step) load(l, k).div(load(r, k)).intoArray(v, k);
+                break;
+            case CompiledExpression.LT:
+                for (int k = 0; k < bound; k += step) store(load(l, k).lt(load(r, k)), v, k);
+                break;
+            case CompiledExpression.GT:
+                for (int k = 0; k < bound; k += step) store(load(l, k).compare(VectorOperators.GT, load(r, k)), v, k);
+                break;
+            case CompiledExpression.EQ:
+                for (int k = 0; k < bound; k += step) store(load(l, k).eq(load(r, k)), v, k);
+                break;
+            case CompiledExpression.NE:
+                for (int k = 0; k < bound; k += step) store(load(l, k).compare(VectorOperators.NE, load(r, k)), v, k);
+                break;
+            case CompiledExpression.LE:
+                for (int k = 0; k < bound; k += step) store(load(l, k).compare(VectorOperators.LE, load(r, k)), v, k);
+                break;
+            case CompiledExpression.GE:
+                for (int k = 0; k < bound; k += step) store(load(l, k).compare(VectorOperators.GE, load(r, k)), v, k);
+                break;
+            case CompiledExpression.SQRT:
+                for (int k = 0; k < bound; k += step) load(l, k).lanewise(VectorOperators.SQRT).intoArray(v, k);
+                break;
+            case CompiledExpression.ABS:
+                for (int k = 0; k < bound; k += step) load(l, k).abs().intoArray(v, k);
+                break;
+            case CompiledExpression.MIN:
+                for (int k = 0; k < bound; k += step) load(l, k).min(load(r, k)).intoArray(v, k);
+                break;
+            case CompiledExpression.MAX:
+                for (int k = 0; k < bound; k += step) load(l, k).max(load(r, k)).intoArray(v, k);
+                break;
+            default:
+                throw new IllegalStateException("Invalid instruction: " + op);
+        }
+        for (int k = bound; k < n; k++) { // Rows left over after the last full vector
+            v[k] = CompiledExpression.apply(op, l[k], r[k]);
+        }
+    }
+
+    private static DoubleVector load(double[] values, int k) {
+        return DoubleVector.fromArray(SPECIES, values, k);
+    }
+
+    private static void store(VectorMask<Double> mask, double[] v, int k) {
+        ZERO.blend(ONE, mask).intoArray(v, k);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mycalculator.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that compiled bytecode gives exactly the interpreter's results and errors.
+ * Surefire runs the tests with {@code -Dmycalculator.jit.threshold=2}, so the second evaluation of an
+ * expression already runs its bytecode.
+ */
+class BytecodeCompilerTest {
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "%", "^", "<", ">", "=", "<>", "<=", ">="};
+    private static final String[] FUNCTIONS = {"sin", "cos", "tg", "ctg", "sqrt", "log", "exp", "abs"};
+    private static final String[] OPERANDS = {"x", "y", "z", "rate", "0", "1", "2", "0.5", "3", "1e308", "7.25"};
+    private static final double[] VALUES = {0.0, -0.0, 1.0, -1.0, 0.5, 2.0, -3.5, 1e-300, 1e300,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Math.PI};
+
+    private final Parser parser = new Parser();
+    private final Random random = new Random(42);
+
+    @Test
+    void matchesTheInterpreter() throws InterpreterException {
+        Set<Integer> opcodes = new HashSet<>();
+        for (String expression : corpus()) {
+            CompiledExpression compiled = parser.compile(expression);
+            for (int i = 0; i <= compiled.result(); i++) {
+                opcodes.add(compiled.op(i));
+            }
+            CompiledFunction function = BytecodeCompiler.compile(compiled);
+            assertNotNull(function, expression);
+            for (double[] vars : points()) {
+                String expected = outcome(() -> compiled.interpret(vars));
+                assertEquals(expected, outcome(() -> function.evaluate(vars)), expression);
+                assertEquals(expected, outcome(() -> compiled.evaluate(vars)), expression);
+            }
+        }
+        // Every instruction was generated and compared at least once, not lost to a misspelled function
+        for (int op = CompiledExpression.CONST; op <= CompiledExpression.MAX; op++) {
+            assertTrue(opcodes.contains(op), "Instruction " + op + " never compiled");
+        }
+    }
+
+    @Test
+    void promotesAfterTheThreshold() throws InterpreterException {
+        CompiledExpression compiled = parser.compile("x^3-2*x+1/(x-4)");
+        double[] vars = new double[Parser.NUMVARS];
+        for (int i = 0; i < 100; i++) {
+            vars['X' - 'A'] = i * 0.37;
+            assertEquals(compiled.interpret(vars), compiled.evaluate(vars));
+        }
+    }
+
+    private List<String> corpus() {
+        List<String> corpus = new ArrayList<>(List.of(
+                "2+3*4", "x^2^y", "-x^2", "x/y", "x%y", "x<y", "x<=y", "x>=y", "x<>y", "x=y",
+                "min(x,y,z)", "max(x,-y,0)", "abs(x)*sqrt(y)", "ctg(x)+tg(y)", "log(x)-exp(y)",
+                "x^0", "x^1", "x^-2", "x^64", "x^65", "x^0.5", "x+x+x", "rate*rate", "sin(x)^2+cos(x)^2"));
+        while (corpus.size() < 300) {
+            String expression = expression(4);
+            // Some nestings of functions trip quirks of the grammar; only compare what parses
+            if (parser.tryEvaluate(expression).errorPosition() < 0) {
+                corpus.add(expression);
+            }
+        }
+        return corpus;
+    }
+
+    private String expression(int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            return OPERANDS[random.nextInt(OPERANDS.length)];
+        }
+        return switch (random.nextInt(4)) {
+            case 0 -> FUNCTIONS[random.nextInt(FUNCTIONS.length)] + "(" + expression(depth - 1) + ")";
+            case 1 -> (random.nextBoolean() ? "min(" : "max(") + expression(depth - 1) + "," + expression(depth - 1) + ")";
+            // Comparisons are not allowed inside parentheses, so they only appear at the top level
+            case 2 -> "(" + arithmetic(depth) + ")";
+            default -> depth == 4 ? expression(depth - 1) + OPERATORS[random.nextInt(OPERATORS.length)]
+                    + expression(depth - 1) : arithmetic(depth);
+        };
+    }
+
+    private String arithmetic(int depth) {
+        return expression(depth - 1) + OPERATORS[random.nextInt(6)] + expression(depth - 1);
+    }
+
+    private List<double[]> points() {
+        List<double[]> points = new ArrayList<>();
+        int rate = parser.getEnvironment().slot("rate");
+        for (double x : VALUES) {
+            for (double y : new double[]{0.0, -2.0, 3.0, Double.NaN, Double.NEGATIVE_INFINITY}) {
+                double[] vars = new double[Math.max(Parser.NUMVARS, rate + 1)];
+                vars['X' - 'A'] = x;
+                vars['Y' - 'A'] = y;
+                vars['Z' - 'A'] = x - y;
+                vars[rate] = y * 0.25;
+                points.add(vars);
+            }
+        }
+        return points;
+    }
+
+    private interface Evaluation {
+        double run() throws InterpreterException;
+    }
+
+    // The bits of the value, so that -0.0 and 0.0 differ but all NaNs are equal, or the message of the error
+    private static String outcome(Evaluation evaluation) {
+        try {
+            return Long.toHexString(Double.doubleToLongBits(evaluation.run()));
+        } catch (InterpreterException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.mycalculator.logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledExpressionTest {
+    private static final double[] SPECIAL = {0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE, 1.0, -1.0};
+    private static final String[] BATCH_EXPRESSIONS = {
+            "x+y", "x-y", "x*y", "-x", "x/(abs(y)+1)", "x/y", "x%y", "x^y", "x^3",
+            "x<y", "x>y", "x=y", "x<>y", "x<=y", "x>=y",
+            "sqrt(x)", "abs(x)", "min(x,y)", "max(x,y)", "min(x,y,z)*max(z,-x)",
+            "sin(x)+cos(y)+tg(z)", "ctg(x)", "log(y)-exp(z)", "x*y-z*2<x+y*z", "1/(x-x+2)"};
+
+    private final Parser parser = new Parser();
+
+    @Test
+    void runsWithTheVectorModule() {
+        // Surefire adds the module, so the vector loops below are really compared against the scalar ones
+        assertTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+    }
+
+    @Test
+    void interpretsWithoutAllocating() throws InterpreterException {
+        CompiledExpression compiled = parser.compile("x*y+sin(z)/(x+1)-max(x,y,z)^2");
+        double[] vars = new double[Parser.NUMVARS];
+        compiled.interpret(vars);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            vars['X' - 'A'] = i;
+            compiled.interpret(vars);
+        }
+        // A few hundred bytes of slack for the measurement itself; an array per call would be megabytes
+        assertTrue(threads.getCurrentThreadAllocatedBytes() - before < 1024);
+    }
+
+    @Test
+    void interpretsLongExpressionsWithoutKeepingTheirValues() throws InterpreterException {
+        CompiledExpression compiled = parser.compile("x+".repeat(10_000) + "x");
+        assertEquals(10_000, compiled.result()); // One instruction for x, then one per addition
+        double[] vars = new double[Parser.NUMVARS];
+        vars['X' - 'A'] = 0.5;
+        assertEquals(5000.5, compiled.interpret(vars));
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        assertEquals(5000.5, compiled.interpret(vars));
+        // Too long for the array kept per thread, so every call allocates its own
+        assertTrue(threads.getCurrentThreadAllocatedBytes() - before >= 8L * compiled.result());
+    }
+
+    @Test
+    void powersStayWithinAFewUlps() {
+        assertEquals(Math.pow(1.0000001, 1e9), CompiledExpression.pow(1.0000001, 1e9));
+        assertEquals(Math.pow(1.0000001, -1e9), CompiledExpression.pow(1.0000001, -1e9));
+        assertEquals(Math.pow(3, 65), CompiledExpression.pow(3, 65));
+        assertEquals(1024.0, CompiledExpression.pow(2, 10));
+        assertEquals(1e308, CompiledExpression.pow(1e-154, -2), 1e308 * 1e-15);
+        assertEquals(Double.POSITIVE_INFINITY, CompiledExpression.pow(0.0, -3));
+        assertEquals(Double.NEGATIVE_INFINITY, CompiledExpression.pow(-0.0, -3));
+        Random random = new Random(8);
+        for (int i = 0; i < 10_000; i++) {
+            double base = (random.nextDouble() - 0.5) * 20;
+            int exponent = random.nextInt(129) - 64;
+            double expected = Math.pow(base, exponent);
+            double tolerance = (Math.abs(exponent) <= 4) ? 3 * Math.ulp(expected) : 0.0;
+            assertEquals(expected, CompiledExpression.pow(base, exponent), tolerance, base + "^" + exponent);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 255, 257, 1003})
+    void batchesMatchEvaluation(int rows) throws InterpreterException {
+        double[][] columns = columns(rows);
+        for (String expression : BATCH_EXPRESSIONS) {
+            CompiledExpression compiled = parser.compile(expression);
+            String[] expected = new String[rows];
+            String error = null;
+            double[] vars = new double[Parser.NUMVARS];
+            for (int row = 0; row < rows; row++) {
+                for (int slot = 'X' - 'A'; slot <= 'Z' - 'A'; slot++) {
+                    vars[slot] = columns[slot][row];
+                }
+                try {
+                    expected[row] = bits(compiled.evaluate(vars));
+                } catch (InterpreterException e) {
+                    error = e.getMessage();
+                }
+            }
+            assertEquals(error == null ? String.join(",", expected) : error,
+                    batch(compiled, columns, rows, true), expression + " with vectors");
+            assertEquals(error == null ? String.join(",", expected) : error,
+                    batch(compiled, columns, rows, false), expression + " without vectors");
+        }
+    }
+
+    // Every pair of special values in x and y, then random values of mixed magnitude and sign
+    private static double[][] columns(int rows) {
+        Random random = new Random(rows);
+        int n = SPECIAL.length;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        double[] z = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            if (row < n * n) {
+                x[row] = SPECIAL[row % n];
+                y[row] = SPECIAL[row / n];
+                z[row] = SPECIAL[(row + row / n) % n];
+            } else {
+                x[row] = random(random);
+                y[row] = random(random);
+                z[row] = random(random);
+            }
+        }
+        double[][] columns = new double[Parser.NUMVARS][];
+        columns['X' - 'A'] = x;
+        columns['Y' - 'A'] = y;
+        columns['Z' - 'A'] = z;
+        return columns;
+    }
+
+    private static double random(Random random) {
+        return (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10);
+    }
+
+    private static String batch(CompiledExpression compiled, double[][] columns, int rows, boolean vectorized) {
+        double[] out = new double[rows];
+        try {
+            compiled.evaluateBatch(columns, out, vectorized);
+        } catch (InterpreterException e) {
+            return e.getMessage();
+        }
+        String[] results = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            results[row] = bits(out[row]);
+        }
+        return String.join(",", results);
+    }
+
+    // Equal values have equal bits, except that -0.0 differs from 0.0 and all NaNs are equal
+    private static String bits(double value) {
+        return Long.toHexString(Double.doubleToLongBits(value));
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycalculator.logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks symbolic derivatives against central differences, away from the points where the
+ * expressions are not differentiable, and checks the one-sided cases at those points.
+ */
+class DifferentiatorTest {
+    private static final double[] POINTS = {-2.7, -1.3, -0.4, 0.3, 0.9, 1.6, 2.2};
+    private static final double STEP = 1e-6;
+
+    private final Parser parser = new Parser();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "x*x*x-2*x+7", "-x", "3/x", "x/(x*x+1)", "x%1.5", "x^3", "x^-2", "2^x", "abs(x)^x",
+            "sin(x)*cos(x)", "tg(x)", "ctg(x)", "tg(x*x)", "sqrt(x*x+1)", "log(x*x)", "exp(-x*x)",
+            "abs(x)", "abs(x*x-1)", "x*abs(x)", "min(x,1)", "max(x*x,2)", "min(x,2*x,3)",
+            "sin(x)+x^2*exp(x)/sqrt(abs(x)+1)"})
+    void matchesCentralDifferences(String expression) throws InterpreterException {
+        CompiledExpression function = parser.compile(expression);
+        CompiledExpression derivative = parser.derivative(expression, "x");
+        for (double x : POINTS) {
+            double difference = (evaluate(function, x + STEP) - evaluate(function, x - STEP)) / (2 * STEP);
+            double exact = evaluate(derivative, x);
+            assertEquals(difference, exact, 1e-5 * Math.max(1.0, Math.abs(exact)), expression + " at " + x);
+        }
+    }
+
+    @Test
+    void tangentsAreSteepNearTheirPoles() throws InterpreterException {
+        // The names tg and ctg; tan and cot would parse as variables
+        CompiledExpression tangent = parser.derivative("tg(x)", "x");
+        CompiledExpression cotangent = parser.derivative("ctg(x)", "x");
+        for (double x : new double[]{1.5, 1.57, -1.56}) {
+            double expected = 1 / (Math.cos(x) * Math.cos(x));
+            assertEquals(expected, evaluate(tangent, x), 1e-9 * expected, "tg at " + x);
+        }
+        for (double x : new double[]{0.01, -0.002, 3.14}) {
+            double expected = -1 / (Math.sin(x) * Math.sin(x));
+            assertEquals(expected, evaluate(cotangent, x), 1e-9 * Math.abs(expected), "ctg at " + x);
+        }
+    }
+
+    @Test
+    void absHasZeroSlopeAtTheKink() throws InterpreterException {
+        assertEquals(0.0, evaluate(parser.derivative("abs(x)", "x"), 0.0));
+        assertEquals(0.0, evaluate(parser.derivative("x*abs(x)", "x"), 0.0));
+        assertEquals(0.0, evaluate(parser.derivative("abs(x*x-1)", "x"), 1.0));
+        assertEquals(-1.0, evaluate(parser.derivative("abs(x)", "x"), -1e-300));
+    }
+
+    @Test
+    void derivativeByAnUnknownNameIsZero() throws InterpreterException {
+        assertEquals(0.0, evaluate(parser.derivative("x*x", "nowhere"), 3.0));
+        assertEquals(Parser.NUMVARS, parser.getEnvironment().size());
+    }
+
+    @Test
+    void solvesAroundKinks() throws InterpreterException {
+        int x = parser.getEnvironment().slot("x");
+        assertEquals(1.0, Math.abs(new RootSolver(parser.compile("abs(x)-1"), x).solve(0.0)), 1e-12);
+        assertEquals(2.0, new RootSolver(parser.compile("abs(x-2)"), x).solve(0.0), 1e-12);
+        assertEquals(0.0, new RootSolver(parser.compile("abs(x)"), x).solve(1.0), 1e-12);
+    }
+
+    private static double evaluate(CompiledExpression expression, double x) throws InterpreterException {
+        double[] vars = new double[Parser.NUMVARS];
+        vars['X' - 'A'] = x;
+        return expression.evaluate(vars);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycalculator.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnvironmentTest {
+
+    @Test
+    void assignsSlotsAfterTheLetters() {
+        Environment environment = new Environment();
+        assertEquals(23, environment.slot("X"));
+        assertEquals(26, environment.slot("rate"));
+        assertEquals(26, environment.slot("RATE"));
+        assertEquals(27, environment.slot("time"));
+        assertEquals(28, environment.size());
+    }
+
+    @Test
+    void namedValuesDoNotAssignSlots() throws InterpreterException {
+        Parser parser = new Parser();
+        double[] vars = parser.getEnvironment().values(Map.of("unused", 1.0, "y", 2.0));
+        assertEquals(Parser.NUMVARS, vars.length);
+        assertEquals(Parser.NUMVARS, parser.getEnvironment().size());
+        assertEquals(2, vars['Y' - 'A']);
+        assertEquals(Parser.NUMVARS, parser.getEnvironment().columns(Map.of("unused", new double[1])).length);
+
+        assertEquals(6, parser.evaluate("rate*y", Map.of("rate", 3.0, "y", 2.0)));
+        assertEquals(Parser.NUMVARS + 1, parser.getEnvironment().size());
+    }
+
+    @Test
+    void variablesBeyondTheArrayAreZero() throws InterpreterException {
+        Parser parser = new Parser();
+        CompiledExpression compiled = parser.compile("rate+x+1");
+        assertEquals(1, compiled.evaluate(new double[0]));
+        assertEquals(1, compiled.evaluate(new double[Parser.NUMVARS]));
+        assertEquals(1, compiled.interpret(new double[Parser.NUMVARS]));
+        CompiledFunction function = BytecodeCompiler.compile(compiled);
+        assertNotNull(function);
+        assertEquals(1, function.evaluate(new double[Parser.NUMVARS]));
+    }
+
+    @Test
+    void lettersOnlyEvaluatesOtherNamesAsZero() throws InterpreterException {
+        Parser parser = new Parser(Environment.lettersOnly());
+        for (int i = 0; i < 2 * Environment.DEFAULT_CAPACITY; i++) {
+            assertEquals(1, parser.evaluate("n" + i + "+1"));
+        }
+        assertEquals(1, parser.evaluate("other+1"));
+        assertEquals(Parser.NUMVARS, parser.getEnvironment().size());
+        assertEquals(0, parser.derivative("other*x", "other").evaluate(new double[0]));
+        assertThrows(IllegalStateException.class, () -> parser.getEnvironment().slot("other"));
+    }
+
+    @Test
+    void boundsTheNumberOfSlots() throws InterpreterException {
+        Parser parser = new Parser(new Environment(Parser.NUMVARS + 1));
+        assertEquals(2, parser.evaluate("first+1", Map.of("first", 1.0)));
+        assertEquals(Parser.TOOMANYVARS, parser.tryEvaluate("second+1").errorCode());
+        assertEquals(Parser.NUMVARS + 1, parser.getEnvironment().size());
+        assertThrows(IllegalStateException.class, () -> parser.getEnvironment().slot("third"));
+        assertEquals(0, parser.evaluate("first"));
+    }
+}
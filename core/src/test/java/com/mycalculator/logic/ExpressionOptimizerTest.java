@@ -0,0 +1,66 @@
+package com.mycalculator.logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that simplification never changes a result, an error or the sign of a zero.
+ */
+class ExpressionOptimizerTest {
+    private static final double[] VALUES = {0.0, -0.0, 1.0, -2.5, Double.NaN,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+    private final Parser parser = new Parser();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"(1/0)^0", "0*(1/0)", "(1/(x-x))^0", "1%0^1", "-(1/0)", "abs(-(x/0))", "(x/0)*1"})
+    void keepsDivisionsByZero(String expression) throws InterpreterException {
+        CompiledExpression compiled = parser.compile(expression);
+        // Only finite values, since x - x is NaN rather than zero for the others
+        for (double x : new double[]{0.0, -0.0, 1.0, -2.5}) {
+            InterpreterException e = assertThrows(InterpreterException.class, () -> compiled.evaluate(vars(x)),
+                    expression + " at " + x);
+            assertEquals(Parser.DIVBYZERO, e.code());
+        }
+    }
+
+    @Test
+    void foldsPowersOfZeroThatCannotFail() throws InterpreterException {
+        CompiledExpression compiled = parser.compile("x^0");
+        assertEquals(0, compiled.result());
+        assertEquals(CompiledExpression.CONST, compiled.op(0));
+        for (double x : VALUES) {
+            assertEquals(1.0, compiled.evaluate(vars(x)), "at " + x);
+        }
+        assertEquals(1.0, parser.compile("sin(x)^0").evaluate(vars(Double.NaN)));
+    }
+
+    @Test
+    void keepsTheSignOfZero() throws InterpreterException {
+        // -0.0 + 0.0 is 0.0, so x + 0.0 is not x
+        CompiledExpression sum = parser.compile("x+0.0");
+        assertEquals(CompiledExpression.ADD, sum.op(sum.result()));
+        assertEquals(Double.doubleToRawLongBits(0.0), Double.doubleToRawLongBits(sum.evaluate(vars(-0.0))));
+        // x - 0.0 and x + -0.0 are x for every x, including both zeros
+        for (String expression : new String[]{"x-0.0", "x+-0.0", "x*1", "x/1"}) {
+            CompiledExpression compiled = parser.compile(expression);
+            assertEquals(0, compiled.result(), expression);
+            for (double x : VALUES) {
+                assertEquals(Double.doubleToRawLongBits(x), Double.doubleToRawLongBits(compiled.evaluate(vars(x))),
+                        expression + " at " + x);
+            }
+        }
+        CompiledExpression difference = parser.compile("x-(-0.0)");
+        assertEquals(Double.doubleToRawLongBits(0.0), Double.doubleToRawLongBits(difference.evaluate(vars(-0.0))));
+    }
+
+    private static double[] vars(double x) {
+        double[] vars = new double[Parser.NUMVARS];
+        vars['X' - 'A'] = x;
+        return vars;
+    }
+}
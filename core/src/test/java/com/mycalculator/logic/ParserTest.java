@@ -0,0 +1,150 @@
+package com.mycalculator.logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the parser against the results of the recursive descent parser it replaced, including its quirks,
+ * and checks that nesting depth is only limited by memory.
+ */
+class ParserTest {
+    private static final int DEPTH = 100_000;
+
+    private final Parser parser = new Parser();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "2+3*4 | 14",
+            "(2+3)*4 | 20",
+            "10-4-3 | 3",
+            "100/10/5 | 2",
+            "17%5 | 2",
+            "1+2*3-4/5%6^7 | 6.2",
+            "10-2^3*2 | -6",
+            "8/2/2^2 | 1",
+            // Powers are right-associative and unary minus binds tighter than them
+            "2^3^2 | 512",
+            "(2^3)^2 | 64",
+            "2^-1 | 0.5",
+            "2^2^-1 | 1.4142135623730951",
+            "4^0.5^2 | 1.4142135623730951",
+            "-2^2 | 4",
+            "-(2^2) | -4",
+            "+5 | 5",
+            "2*-3 | -6",
+            // Comparisons are right-associative and bind looser than arithmetic
+            "1<2 | 1",
+            "2<1 | 0",
+            "1<2<3 | 0",
+            "3>2>1 | 1",
+            "2<=2 | 1",
+            "3<=2 | 0",
+            "2>=3 | 0",
+            "3>=3 | 1",
+            "1<>2 | 1",
+            "2<>2 | 0",
+            "1=1 | 1",
+            "1=2 | 0",
+            "1+1<=3-1 | 1",
+            "2*3>=7 | 0",
+            "5<>5+1 | 1",
+            "sqrt(16) | 4",
+            "√16 | 4",
+            "√(9)+1 | 4",
+            "sin(0)+cos(0) | 1",
+            "tg(1) | 1.5574077246549023",
+            "ctg(1) | 0.6420926159343306",
+            // The tangents are named tg and ctg; tan is a variable and the parenthesis after it is ignored
+            "tan(1) | 0",
+            "tan+1 | 1",
+            "abs(-3) | 3",
+            "min(3,1,2) | 1",
+            "max(3,1,2) | 3",
+            "exp(0)+log(1) | 1",
+            "x+1 | 1",
+            "-x^2 | 0",
+            "rate*2 | 0",
+            "3.5e2 | 350",
+            "(((((((((((1+2)))))))))))*3 | 9",
+            // Whatever follows a complete expression is ignored
+            "(1)) | 1",
+            "1 2 | 1",
+            "2(3) | 2",
+    })
+    void evaluates(String expression, double expected) throws InterpreterException {
+        assertEquals(expected, parser.evaluate(expression));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "--5 | 11",
+            "sqrt 16 | 11",
+            "min(1) | 11",
+            "max() | 11",
+            "1/0 | 13",
+            "1%0 | 13",
+            "1/(2-2) | 13",
+            "1<1/0 | 13",
+            "1/0) | 13",
+            // A syntax error anywhere takes precedence over a division by zero before it
+            "1/0+ | 11",
+            "1/0*( | 11",
+            "1/0< | 11",
+            "(1/0 | 14",
+            ") | 11",
+            "( | 11",
+            "() | 11",
+            "((1) | 14",
+            "(1<2) | 14",
+            "1+ | 11",
+            "*1 | 11",
+            "1+sin( | 11",
+            "min(1, | 11",
+            ".5+.25 | 12",
+            "1e-3*1000 | 11",
+    })
+    void reportsErrors(String expression, int code) {
+        assertEquals(code, parser.tryEvaluate(expression).errorCode());
+    }
+
+    @Test
+    void reportsErrorPositions() {
+        assertEquals(4, parser.tryEvaluate("1+2*)").errorPosition());
+        assertEquals(-1, parser.tryEvaluate("1/0").errorPosition());
+    }
+
+    @Test
+    void parsesDeepNesting() throws InterpreterException {
+        assertEquals(1, parser.evaluate("(".repeat(DEPTH) + "1" + ")".repeat(DEPTH)));
+        assertEquals(1, parser.evaluate("-(".repeat(DEPTH) + "1" + ")".repeat(DEPTH)));
+        assertEquals(1, parser.evaluate("√".repeat(DEPTH) + "1"));
+        assertEquals(1, parser.evaluate("1^".repeat(DEPTH) + "1"));
+        assertEquals(0, parser.evaluate("1<".repeat(DEPTH) + "1"));
+        assertEquals(DEPTH + 1, parser.evaluate("1+".repeat(DEPTH) + "1"));
+        assertTrue(Double.isFinite(parser.evaluate("sin(".repeat(DEPTH) + "1" + ")".repeat(DEPTH))));
+        assertEquals(Parser.UNBALPARENS, parser.tryEvaluate("(".repeat(DEPTH) + "1").errorCode());
+        assertEquals(Parser.SYNTAX, parser.tryEvaluate("max(".repeat(DEPTH) + "1,2" + ")".repeat(DEPTH)).errorCode());
+    }
+
+    @Test
+    void parsesSlicesLikeStrings() throws InterpreterException {
+        String expression = "x*2+max(y,3)^2";
+        double[] vars = new double[Parser.NUMVARS];
+        vars['X' - 'A'] = 1.5;
+        vars['Y' - 'A'] = 4;
+        String padded = "  ;" + expression + ";  ";
+        double expected = parser.evaluate(expression, vars);
+        assertEquals(19, expected);
+        assertEquals(expected, parser.evaluate(padded, 3, expression.length(), vars));
+        assertEquals(expected, parser.evaluate(padded.toCharArray(), 3, expression.length(), vars));
+        ByteBuffer bytes = ByteBuffer.wrap(padded.getBytes(StandardCharsets.US_ASCII));
+        assertEquals(expected, parser.evaluate(bytes, 3, expression.length(), vars));
+    }
+}
@@ -1,7 +0,0 @@
-package com.mycalculator.logic;
-
-public class InterpreterException extends Exception {
-    public InterpreterException(String message) {
-        super(message);
-    }
-}
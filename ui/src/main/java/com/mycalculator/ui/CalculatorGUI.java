@@ -0,0 +1,349 @@
+package com.mycalculator.ui;
+
+import com.mycalculator.logic.CalculatorLogic;
+import com.mycalculator.logic.InterpreterException;
+import com.mycalculator.logic.Parser;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This class represents the GUI for a calculator.
+ * It extends JFrame and implements ActionListener to handle button clicks.
+ */
+public class CalculatorGUI extends JFrame implements ActionListener {
+
+    private final CalculatorLogic calculatorLogic = new CalculatorLogic();
+    final ExpressionBuffer expression = new ExpressionBuffer("0");
+
+    private JLabel mainText;
+    private JLabel previewText;
+    private JFrame plotFrame;
+    private PlotPanel plotPanel;
+    private final String[] buttonLabels = {
+            "MS", "MR", "M+", "M-",
+            "(", ")", "C", "Clear",
+            "Sin", "Cos", "Tg", "Ctg",
+            "%", "^", "√", "/",
+            "7", "8", "9", "*",
+            "4", "5", "6", "-",
+            "1", "2", "3", "+",
+            "+/-", "0", ".", "="
+    };
+
+    private double memory = 0;
+
+    // The running evaluation, and a counter that makes the results of superseded evaluations stale
+    private SwingWorker<Double, Void> evaluation;
+    private long generation = 0;
+
+    /**
+     * Constructs a new CalculatorGUI.
+     * Sets the title, default close operation, and initializes the components.
+     */
+    public CalculatorGUI() {
+        setTitle("Calculator");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        initComponents();
+        setSize(350, 700);
+        setLocationRelativeTo(null);
+    }
+
+    /**
+     * Initializes the components of the calculator GUI.
+     * This includes the main label, additional text label, main text label, and buttons.
+     */
+    private void initComponents() {
+        JPanel centerPanel = new JPanel(new GridLayout(3, 1));
+
+        JLabel mainLabel = new JLabel("Calculator", SwingConstants.LEFT);
+        mainLabel.setFont(Theme.TITLE_FONT);
+        mainLabel.setForeground(Color.WHITE);
+        mainLabel.setBackground(Theme.BACKGROUND);
+        mainLabel.setOpaque(true);
+        mainLabel.setBorder(Theme.LABEL_BORDER);
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.add(mainLabel, BorderLayout.CENTER);
+        JPanel plotButtons = new JPanel(new GridLayout(1, 2));
+        for (String label : new String[]{"x", "Plot"}) {
+            JButton button = new JButton(label);
+            button.setFont(Theme.BUTTON_FONT);
+            button.setForeground(Color.WHITE);
+            button.setBackground(Theme.BACKGROUND);
+            button.setFocusable(false);
+            button.setPreferredSize(new Dimension(70, 60));
+            button.setBorder(Theme.BUTTON_BORDER);
+            button.addActionListener(this);
+            plotButtons.add(button);
+        }
+        headerPanel.add(plotButtons, BorderLayout.EAST);
+        centerPanel.add(headerPanel);
+
+        mainText = new JLabel("0", SwingConstants.RIGHT);
+        mainText.setFont(Theme.DISPLAY_FONT);
+        mainText.setForeground(Color.WHITE);
+        mainText.setBackground(Theme.BACKGROUND);
+        mainText.setOpaque(true);
+        mainText.setBorder(Theme.LABEL_BORDER);
+        centerPanel.add(mainText);
+
+        previewText = new JLabel("", SwingConstants.RIGHT);
+        previewText.setFont(Theme.PREVIEW_FONT);
+        previewText.setForeground(Theme.MUTED);
+        previewText.setBackground(Theme.BACKGROUND);
+        previewText.setOpaque(true);
+        previewText.setBorder(Theme.LABEL_BORDER);
+        centerPanel.add(previewText);
+
+        add(centerPanel, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new GridLayout(8, 4));
+        JButton[] buttons = new JButton[buttonLabels.length];
+        for (int i = 0; i < buttonLabels.length; i++) {
+            buttons[i] = new JButton(buttonLabels[i]);
+            buttons[i].setFont(Theme.BUTTON_FONT);
+            buttons[i].setForeground(Color.WHITE);
+            buttons[i].setFocusable(false);
+            if (i < 4)
+                buttons[i].setBackground(Theme.BACKGROUND);
+            else if (i < 16 || (i + 1) % 4 == 0)
+                buttons[i].setBackground(Theme.OPERATOR);
+            else
+                buttons[i].setBackground(Theme.DIGIT);
+            buttons[i].setPreferredSize(new Dimension(70, 60));
+            buttons[i].setMargin(new Insets(5, 5, 5, 5));
+            buttons[i].setBorder(Theme.BUTTON_BORDER);
+            buttons[i].addActionListener(this);
+            buttonPanel.add(buttons[i]);
+        }
+        buttons[buttonLabels.length - 1].setBackground(Theme.ACCENT);
+        buttons[buttonLabels.length - 1].setForeground(Theme.OPERATOR);
+
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        InputMap inputMap = getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        ActionMap actionMap = getRootPane().getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undo");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redo");
+        actionMap.put("undo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                undoEdit(true);
+            }
+        });
+        actionMap.put("redo", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                undoEdit(false);
+            }
+        });
+    }
+
+    /**
+     * Handles the action events from the buttons.
+     * This includes digit buttons, operation buttons, and memory buttons.
+     *
+     * @param e the action event
+     */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        String command = e.getActionCommand();
+        long version = expression.version();
+        if (Character.isDigit(command.charAt(0)) && command.length() == 1) {
+            if ("0".contentEquals(expression))
+                expression.setText(command);
+            else
+                expression.insert(command);
+        } else {
+            switch (command) {
+                case ".":
+                    expression.insert(command);
+                    break;
+                case "x":
+                    if ("0".contentEquals(expression))
+                        expression.setText(command);
+                    else
+                        expression.insert(command);
+                    break;
+                case "Plot":
+                    showPlot();
+                    break;
+                case "C":
+                    expression.setText("0");
+                    break;
+                case "Clear":
+                    expression.deleteBackward();
+                    break;
+                case "MS":
+                case "M+":
+                case "M-":
+                    if (expression.length() > 0)
+                        memory = calculatorLogic.processMemory(memory, command, expression.toString());
+                    break;
+                case "MR":
+                    if (memory != 0)
+                        expression.setText(String.valueOf(memory));
+                    break;
+                case "+/-":
+                    if (expression.length() > 0) {
+                        if (expression.charAt(0) == '-')
+                            expression.replace(0, 1, "");
+                        else
+                            expression.replace(0, 0, "-");
+                        expression.moveCursor(expression.length());
+                    }
+                    break;
+                case "√":
+                case "Sin":
+                case "Cos":
+                case "Tg":
+                case "Ctg":
+                    if (expression.length() > 0)
+                        evaluateInBackground(command);
+                    break;
+                case "(":
+                case ")": {
+                    expression.insert(command);
+                    break;
+                }
+                case "%":
+                case "^":
+                    if (expression.length() > 0)
+                        expression.insert(command);
+                    break;
+                default:
+                    if (command.charAt(0) == '=') {
+                        if (expression.length() > 0)
+                            evaluateInBackground(command);
+                    } else {
+                        if (expression.length() > 0)
+                            expression.insert(command);
+                    }
+                    break;
+            }
+        }
+        if (expression.version() != version)
+            expressionChanged();
+    }
+
+    /**
+     * Shows the plot window and plots the current expression over x in it.
+     */
+    private void showPlot() {
+        if (plotFrame == null) {
+            plotPanel = new PlotPanel(calculatorLogic.getCache(), calculatorLogic.parser.getEnvironment().slot("x"));
+            plotFrame = new JFrame("Plot");
+            plotFrame.add(plotPanel);
+            plotFrame.pack();
+            plotFrame.setLocationRelativeTo(this);
+        }
+        plotPanel.setExpression(expression.toString());
+        plotFrame.setVisible(true);
+    }
+
+    /**
+     * Undoes or redoes the last edit of the expression.
+     *
+     * @param undo true to undo, false to redo
+     */
+    private void undoEdit(boolean undo) {
+        if (undo ? expression.undo() : expression.redo()) {
+            expression.moveCursor(expression.length());
+            expressionChanged();
+        }
+    }
+
+    /**
+     * Shows the edited expression and starts evaluating its preview.
+     */
+    private void expressionChanged() {
+        mainText.setText(expression.toString());
+        updatePreview();
+    }
+
+    /**
+     * Evaluates the expression on a background thread and shows the result when it is ready.
+     * Any evaluation still running is cancelled, since its result is no longer wanted.
+     *
+     * @param command "=" to show the result, or the function to apply to it
+     */
+    private void evaluateInBackground(String command) {
+        String source = expression.toString();
+        long current = supersede();
+        evaluation = new SwingWorker<>() {
+            @Override
+            protected Double doInBackground() throws InterpreterException {
+                double result = calculatorLogic.evaluate(source);
+                return command.equals("=") ? result : calculatorLogic.processNumbers(result, command);
+            }
+
+            @Override
+            protected void done() {
+                if (current != generation)
+                    return;
+                try {
+                    expression.setText(Double.toString(get()));
+                    mainText.setText(expression.toString());
+                } catch (ExecutionException ex) {
+                    mainText.setText("Error");
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                previewText.setText("");
+            }
+        };
+        evaluation.execute();
+    }
+
+    /**
+     * Evaluates the expression being typed on a background thread and previews its result.
+     * Unchanged text is not parsed again, because compiled expressions are cached by their text.
+     */
+    private void updatePreview() {
+        String source = expression.toString();
+        long current = supersede();
+        previewText.setText("");
+        evaluation = new SwingWorker<>() {
+            @Override
+            protected Double doInBackground() throws InterpreterException {
+                return calculatorLogic.evaluate(source);
+            }
+
+            @Override
+            protected void done() {
+                if (current != generation)
+                    return;
+                try {
+                    previewText.setText("= " + get());
+                } catch (ExecutionException ex) {
+                    // The expression is not complete yet, so there is nothing to preview
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        evaluation.execute();
+    }
+
+    private long supersede() {
+        if (evaluation != null)
+            evaluation.cancel(true);
+        return ++generation;
+    }
+
+    /**
+     * The main method that launches the calculator GUI.
+     *
+     * @param args the command-line arguments (not used)
+     */
+    public static void main(String[] args) throws com.mycalculator.logic.InterpreterException {
+        EventQueue.invokeLater(() -> new CalculatorGUI().setVisible(true));
+    }
+}
\ No newline at end of file
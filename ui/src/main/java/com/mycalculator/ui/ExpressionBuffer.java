@@ -0,0 +1,225 @@
+package com.mycalculator.ui;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * This class holds the expression being edited in a gap buffer.
+ * The free space of the buffer sits at the cursor, so inserting and deleting there takes amortized
+ * constant time however long the expression is. Every edit is recorded in a bounded history so that
+ * it can be undone and redone.
+ */
+final class ExpressionBuffer implements CharSequence {
+    private static final int DEFAULT_HISTORY_SIZE = 100;
+
+    private final int historySize;
+    private final Deque<Edit> undoHistory = new ArrayDeque<>();
+    private final Deque<Edit> redoHistory = new ArrayDeque<>();
+    private char[] text = new char[16];
+    private int gapStart = 0; // The cursor
+    private int gapEnd = text.length;
+    private long version = 0;
+
+    /**
+     * Constructs a new ExpressionBuffer with the cursor at the end of the initial text.
+     *
+     * @param initialText the initial text, which cannot be undone
+     */
+    ExpressionBuffer(String initialText) {
+        this(initialText, DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * Constructs a new ExpressionBuffer with the cursor at the end of the initial text.
+     *
+     * @param initialText the initial text, which cannot be undone
+     * @param historySize the number of edits that can be undone
+     * @throws IllegalArgumentException if the history size is negative
+     */
+    ExpressionBuffer(String initialText, int historySize) {
+        if (historySize < 0) {
+            throw new IllegalArgumentException("Invalid history size: " + historySize);
+        }
+        this.historySize = historySize;
+        apply(0, 0, initialText);
+    }
+
+    @Override
+    public int length() {
+        return text.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        return text[index < gapStart ? index : index + (gapEnd - gapStart)];
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length());
+        char[] chars = new char[end - start];
+        int gap = gapEnd - gapStart;
+        if (end <= gapStart) {
+            System.arraycopy(text, start, chars, 0, chars.length);
+        } else if (start >= gapStart) {
+            System.arraycopy(text, start + gap, chars, 0, chars.length);
+        } else {
+            System.arraycopy(text, start, chars, 0, gapStart - start);
+            System.arraycopy(text, gapEnd, chars, gapStart - start, end - gapStart);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length());
+    }
+
+    /**
+     * @return a number that changes whenever the text changes
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * @return the position of the cursor
+     */
+    int cursor() {
+        return gapStart;
+    }
+
+    /**
+     * Moves the cursor, which moves the gap along with it.
+     *
+     * @param position the new position, from 0 to the length of the text
+     */
+    void moveCursor(int position) {
+        Objects.checkIndex(position, length() + 1);
+        if (position < gapStart) {
+            int count = gapStart - position;
+            System.arraycopy(text, position, text, gapEnd - count, count);
+            gapStart = position;
+            gapEnd -= count;
+        } else if (position > gapStart) {
+            int count = position - gapStart;
+            System.arraycopy(text, gapEnd, text, gapStart, count);
+            gapStart = position;
+            gapEnd += count;
+        }
+    }
+
+    /**
+     * Inserts text at the cursor and moves the cursor past it.
+     *
+     * @param inserted the text to insert
+     */
+    void insert(CharSequence inserted) {
+        replace(gapStart, gapStart, inserted);
+    }
+
+    /**
+     * Deletes the character before the cursor, if there is one.
+     */
+    void deleteBackward() {
+        if (gapStart > 0) {
+            replace(gapStart - 1, gapStart, "");
+        }
+    }
+
+    /**
+     * Replaces the whole text and moves the cursor to its end.
+     *
+     * @param replacement the new text
+     */
+    void setText(CharSequence replacement) {
+        replace(0, length(), replacement);
+    }
+
+    /**
+     * Replaces a range of the text and moves the cursor to the end of the replacement.
+     * The edit can be undone, and it clears the edits that could be redone, unless it changes nothing.
+     *
+     * @param start the start of the range, inclusive
+     * @param end the end of the range, exclusive
+     * @param replacement the text that replaces the range
+     */
+    void replace(int start, int end, CharSequence replacement) {
+        Objects.checkFromToIndex(start, end, length());
+        Edit edit = new Edit(start, subSequence(start, end), replacement.toString());
+        if (edit.removed.equals(edit.inserted)) {
+            moveCursor(end);
+            return;
+        }
+        apply(start, end, edit.inserted);
+        redoHistory.clear();
+        if (historySize > 0) {
+            if (undoHistory.size() == historySize) {
+                undoHistory.removeFirst();
+            }
+            undoHistory.addLast(edit);
+        }
+    }
+
+    /**
+     * Undoes the last edit and moves the cursor to the end of the restored text.
+     *
+     * @return whether there was an edit to undo
+     */
+    boolean undo() {
+        Edit edit = undoHistory.pollLast();
+        if (edit == null) {
+            return false;
+        }
+        apply(edit.position, edit.position + edit.inserted.length(), edit.removed);
+        redoHistory.addLast(edit);
+        return true;
+    }
+
+    /**
+     * Redoes the last undone edit and moves the cursor to the end of its text.
+     *
+     * @return whether there was an edit to redo
+     */
+    boolean redo() {
+        Edit edit = redoHistory.pollLast();
+        if (edit == null) {
+            return false;
+        }
+        apply(edit.position, edit.position + edit.removed.length(), edit.inserted);
+        undoHistory.addLast(edit);
+        return true;
+    }
+
+    private void apply(int start, int end, String replacement) {
+        // Put the gap after the range and grow it over the range, which deletes it
+        moveCursor(end);
+        gapStart = start;
+        int length = replacement.length();
+        if (gapEnd - gapStart < length) {
+            int tail = text.length - gapEnd;
+            char[] grown = new char[Math.max(text.length * 2, gapStart + length + tail)];
+            System.arraycopy(text, 0, grown, 0, gapStart);
+            System.arraycopy(text, gapEnd, grown, grown.length - tail, tail);
+            text = grown;
+            gapEnd = grown.length - tail;
+        }
+        replacement.getChars(0, length, text, gapStart);
+        gapStart += length;
+        version++;
+    }
+
+    private static final class Edit {
+        private final int position;
+        private final String removed;
+        private final String inserted;
+
+        Edit(int position, String removed, String inserted) {
+            this.position = position;
+            this.removed = removed;
+            this.inserted = inserted;
+        }
+    }
+}
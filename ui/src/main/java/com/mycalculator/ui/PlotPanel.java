@@ -0,0 +1,353 @@
+package com.mycalculator.ui;
+
+import com.mycalculator.logic.CompiledExpression;
+import com.mycalculator.logic.ExpressionCache;
+import com.mycalculator.logic.InterpreterException;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * This class represents a panel that plots an expression as a function of one variable.
+ * Every pixel column is sampled a few times, and columns where the curve spans more than a pixel
+ * are sampled again much more densely. Sampling runs on a background thread and spreads the columns
+ * over all cores, so the EDT only draws the finished samples into a reused image.
+ * Dragging pans the plot and keeps the samples of columns that stay visible, the mouse wheel zooms,
+ * and Shift with the wheel zooms only vertically, which needs no new samples at all.
+ */
+final class PlotPanel extends JPanel {
+    private static final int COARSE_SAMPLES = 4;
+    private static final int FINE_SAMPLES = 1024;
+    private static final int CHUNK_COLUMNS = 32; // Columns sampled by one parallel task
+    private static final double ZOOM_STEP = 1.25;
+
+    private final ExpressionCache cache;
+    private final int slot;
+    private String expression = "";
+
+    // Column k of the plot covers x from k * dx to (k + 1) * dx; the leftmost visible one is firstColumn
+    private double dx = 0.05;
+    private long firstColumn = -200;
+    private double yMin = -10;
+    private double yMax = 10;
+
+    private Samples samples;
+    private String error;
+    private BufferedImage image;
+    private SwingWorker<Samples, Void> sampling;
+    private long generation = 0;
+
+    /**
+     * Constructs a new PlotPanel.
+     *
+     * @param cache the cache that compiles the plotted expressions
+     * @param slot the slot of the variable on the horizontal axis
+     */
+    PlotPanel(ExpressionCache cache, int slot) {
+        this.cache = cache;
+        this.slot = slot;
+        setBackground(Theme.BACKGROUND);
+        setPreferredSize(new Dimension(500, 400));
+
+        MouseAdapter mouse = new MouseAdapter() {
+            private Point last;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                last = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                pan(e.getX() - last.x, e.getY() - last.y);
+                last = e.getPoint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(e.getX(), e.getY(), Math.pow(ZOOM_STEP, e.getPreciseWheelRotation()), !e.isShiftDown());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                resample();
+            }
+        });
+    }
+
+    /**
+     * Plots another expression over the current view.
+     *
+     * @param expression the expression
+     */
+    void setExpression(String expression) {
+        this.expression = expression;
+        samples = null;
+        resample();
+    }
+
+    private void pan(int columns, int pixels) {
+        firstColumn -= columns;
+        double shift = pixels * (yMax - yMin) / Math.max(1, getHeight());
+        yMin += shift;
+        yMax += shift;
+        render();
+        if (columns != 0) {
+            resample();
+        }
+    }
+
+    private void zoom(int x, int y, double factor, boolean horizontal) {
+        double center = yMax - y * (yMax - yMin) / Math.max(1, getHeight());
+        yMin = center - (center - yMin) * factor;
+        yMax = center + (yMax - center) * factor;
+        if (horizontal) {
+            double anchor = (firstColumn + x) * dx;
+            dx *= factor;
+            firstColumn = Math.round(anchor / dx) - x;
+        }
+        render();
+        if (horizontal) {
+            resample();
+        }
+    }
+
+    /**
+     * Samples the visible columns on a background thread, superseding any sampling still running.
+     * Columns already sampled for the same expression and scale are reused.
+     */
+    private void resample() {
+        if (sampling != null) {
+            sampling.cancel(true);
+        }
+        long current = ++generation;
+        Samples previous = samples;
+        String source = expression;
+        double step = dx;
+        long first = firstColumn;
+        int width = Math.max(1, getWidth());
+        double pixelHeight = (yMax - yMin) / Math.max(1, getHeight());
+
+        sampling = new SwingWorker<>() {
+            @Override
+            protected Samples doInBackground() throws InterpreterException {
+                CompiledExpression compiled = cache.get(source);
+                Samples next = new Samples(source, step, first, width);
+                next.copyFrom(previous);
+                next.sample(compiled, slot, pixelHeight, this::isCancelled);
+                return next;
+            }
+
+            @Override
+            protected void done() {
+                if (current != generation || isCancelled())
+                    return;
+                try {
+                    samples = get();
+                    error = null;
+                } catch (ExecutionException ex) {
+                    samples = null;
+                    error = ex.getCause().getMessage();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                render();
+            }
+        };
+        sampling.execute();
+    }
+
+    /**
+     * Draws the axes and the sampled curve into the image, which is only replaced when the size changes.
+     */
+    private void render() {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = image.createGraphics();
+        g.setColor(Theme.BACKGROUND);
+        g.fillRect(0, 0, width, height);
+
+        g.setColor(Theme.AXES);
+        int xAxis = toPixel(0.0, height);
+        g.drawLine(0, xAxis, width, xAxis);
+        if (firstColumn <= 0 && firstColumn + width > 0) {
+            g.drawLine((int) -firstColumn, 0, (int) -firstColumn, height);
+        }
+
+        if (error != null) {
+            g.setColor(Color.WHITE);
+            g.drawString(error, 10, 20);
+        } else if (samples != null && samples.dx == dx) {
+            g.setColor(Theme.ACCENT);
+            int previous = Integer.MIN_VALUE;
+            for (int x = 0; x < width; x++) {
+                long offset = firstColumn + x - samples.first;
+                if (offset < 0 || offset >= samples.min.length || Double.isNaN(samples.min[(int) offset])) {
+                    previous = Integer.MIN_VALUE;
+                    continue;
+                }
+                int column = (int) offset;
+                int top = toPixel(samples.max[column], height);
+                int bottom = toPixel(samples.min[column], height);
+                int start = toPixel(samples.start[column], height);
+                // Join the previous column unless the jump is taller than the plot, as at a pole
+                if (previous != Integer.MIN_VALUE && Math.abs(start - previous) < height) {
+                    top = Math.min(top, Math.min(start, previous));
+                    bottom = Math.max(bottom, Math.max(start, previous));
+                }
+                g.drawLine(x, top, x, bottom);
+                previous = toPixel(samples.end[column], height);
+            }
+        }
+        g.dispose();
+        repaint();
+    }
+
+    private int toPixel(double y, int height) {
+        double pixel = (yMax - y) / (yMax - yMin) * height;
+        return (int) Math.max(-height, Math.min(2.0 * height, pixel));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+        }
+    }
+
+    /**
+     * The range of values of every sampled column, with the first and last value to join neighbours.
+     * Columns without a finite value are NaN.
+     */
+    private static final class Samples {
+        private final String expression;
+        private final double dx;
+        private final long first;
+        private final double[] min;
+        private final double[] max;
+        private final double[] start;
+        private final double[] end;
+        private final boolean[] done;
+
+        Samples(String expression, double dx, long first, int width) {
+            this.expression = expression;
+            this.dx = dx;
+            this.first = first;
+            min = new double[width];
+            max = new double[width];
+            start = new double[width];
+            end = new double[width];
+            done = new boolean[width];
+        }
+
+        // Takes over the columns that an earlier sampling at the same scale already computed
+        void copyFrom(Samples previous) {
+            if (previous == null || previous.dx != dx || !previous.expression.equals(expression)) {
+                return;
+            }
+            for (int i = 0; i < min.length; i++) {
+                long column = first + i - previous.first;
+                if (column >= 0 && column < previous.min.length && previous.done[(int) column]) {
+                    int c = (int) column;
+                    min[i] = previous.min[c];
+                    max[i] = previous.max[c];
+                    start[i] = previous.start[c];
+                    end[i] = previous.end[c];
+                    done[i] = true;
+                }
+            }
+        }
+
+        void sample(CompiledExpression compiled, int slot, double pixelHeight, BooleanSupplier cancelled) {
+            int[] missing = IntStream.range(0, min.length).filter(i -> !done[i]).toArray();
+            int chunks = (missing.length + CHUNK_COLUMNS - 1) / CHUNK_COLUMNS;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                int from = chunk * CHUNK_COLUMNS;
+                int to = Math.min(missing.length, from + CHUNK_COLUMNS);
+                double[] xs = new double[(to - from) * COARSE_SAMPLES];
+                for (int i = from; i < to; i++) {
+                    fill(xs, (i - from) * COARSE_SAMPLES, COARSE_SAMPLES, missing[i]);
+                }
+                double[] ys = evaluate(compiled, slot, xs);
+                double[] fine = new double[FINE_SAMPLES];
+                for (int i = from; i < to; i++) {
+                    int column = missing[i];
+                    boolean partial = store(column, ys, (i - from) * COARSE_SAMPLES, COARSE_SAMPLES);
+                    // Steep or partly undefined columns are sampled again
+                    if (partial || max[column] - min[column] > pixelHeight) {
+                        fill(fine, 0, FINE_SAMPLES, column);
+                        store(column, evaluate(compiled, slot, fine), 0, FINE_SAMPLES);
+                    }
+                    done[column] = true;
+                }
+            });
+        }
+
+        private void fill(double[] xs, int offset, int count, int column) {
+            for (int j = 0; j < count; j++) {
+                xs[offset + j] = (first + column + (j + 0.5) / count) * dx;
+            }
+        }
+
+        // Returns whether the column has both finite and undefined values
+        private boolean store(int column, double[] ys, int offset, int count) {
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            int finite = 0;
+            for (int j = offset; j < offset + count; j++) {
+                if (Double.isFinite(ys[j])) {
+                    low = Math.min(low, ys[j]);
+                    high = Math.max(high, ys[j]);
+                    finite++;
+                }
+            }
+            boolean any = finite > 0;
+            min[column] = any ? low : Double.NaN;
+            max[column] = any ? high : Double.NaN;
+            start[column] = Double.isFinite(ys[offset]) ? ys[offset] : Double.NaN;
+            end[column] = Double.isFinite(ys[offset + count - 1]) ? ys[offset + count - 1] : Double.NaN;
+            return any && finite < count;
+        }
+
+        // Evaluates a whole batch at once, or point by point if some point fails
+        private static double[] evaluate(CompiledExpression compiled, int slot, double[] xs) {
+            double[] ys = new double[xs.length];
+            double[][] columns = new double[slot + 1][];
+            columns[slot] = xs;
+            try {
+                compiled.evaluateBatch(columns, ys);
+            } catch (InterpreterException e) {
+                double[] vars = new double[slot + 1];
+                for (int i = 0; i < xs.length; i++) {
+                    vars[slot] = xs[i];
+                    try {
+                        ys[i] = compiled.evaluate(vars);
+                    } catch (InterpreterException ex) {
+                        ys[i] = Double.NaN;
+                    }
+                }
+            }
+            return ys;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mycalculator.ui;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import java.awt.*;
+
+/**
+ * The fonts, colors and borders shared by every component of the calculator.
+ * They are created once, when the first window is built, so nothing of AWT is loaded by code
+ * that only evaluates expressions.
+ */
+final class Theme {
+    static final Color BACKGROUND = new Color(35, 35, 35);
+    static final Color OPERATOR = new Color(50, 50, 50);
+    static final Color DIGIT = new Color(60, 60, 60);
+    static final Color ACCENT = new Color(35, 180, 240);
+    static final Color MUTED = new Color(150, 150, 150);
+    static final Color AXES = new Color(90, 90, 90);
+
+    static final Font TITLE_FONT = new Font("Arial", Font.PLAIN, 25);
+    static final Font BUTTON_FONT = new Font("Arial", Font.PLAIN, 18);
+    static final Font DISPLAY_FONT = new Font("Arial", Font.PLAIN, 40);
+    static final Font PREVIEW_FONT = new Font("Arial", Font.PLAIN, 20);
+
+    static final Border BUTTON_BORDER = BorderFactory.createLineBorder(Color.BLACK);
+    static final Border LABEL_BORDER = BorderFactory.createEmptyBorder(5, 10, 5, 10);
+
+    private Theme() {
+    }
+}
@@ -0,0 +1,165 @@
+package com.mycalculator.ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionBufferTest {
+    @Test
+    void editsAtTheCursor() {
+        ExpressionBuffer buffer = new ExpressionBuffer("1+3");
+        assertEquals(3, buffer.cursor());
+        buffer.moveCursor(2);
+        buffer.insert("2*");
+        assertEquals("1+2*3", buffer.toString());
+        assertEquals(4, buffer.cursor());
+        buffer.moveCursor(1);
+        buffer.deleteBackward();
+        assertEquals("+2*3", buffer.toString());
+        assertEquals(0, buffer.cursor());
+        buffer.deleteBackward();
+        assertEquals("+2*3", buffer.toString());
+        assertEquals("2*", buffer.subSequence(1, 3));
+        assertEquals('3', buffer.charAt(3));
+    }
+
+    @Test
+    void readsAcrossTheGap() {
+        ExpressionBuffer buffer = new ExpressionBuffer("sin(x)+cos(y)");
+        for (int cursor = 0; cursor <= buffer.length(); cursor++) {
+            buffer.moveCursor(cursor);
+            assertEquals("sin(x)+cos(y)", buffer.toString());
+            assertEquals("x)+c", buffer.subSequence(4, 8), "cursor at " + cursor);
+            assertEquals('+', buffer.charAt(6));
+        }
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        ExpressionBuffer buffer = new ExpressionBuffer("");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            buffer.moveCursor(i % 2 == 0 ? 0 : buffer.length());
+            buffer.insert(i + ",");
+            expected.insert(i % 2 == 0 ? 0 : expected.length(), i + ",");
+        }
+        assertEquals(expected.toString(), buffer.toString());
+        buffer.moveCursor(buffer.length() / 2);
+        buffer.insert("x".repeat(10_000));
+        expected.insert(expected.length() / 2, "x".repeat(10_000));
+        assertEquals(expected.toString(), buffer.toString());
+    }
+
+    @Test
+    void matchesAStringBuilder() {
+        Random random = new Random(15);
+        ExpressionBuffer buffer = new ExpressionBuffer("");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            int cursor = random.nextInt(expected.length() + 1);
+            buffer.moveCursor(cursor);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    String inserted = "ab(".substring(random.nextInt(3));
+                    buffer.insert(inserted);
+                    expected.insert(cursor, inserted);
+                }
+                case 1 -> {
+                    buffer.deleteBackward();
+                    if (cursor > 0) {
+                        expected.deleteCharAt(cursor - 1);
+                    }
+                }
+                default -> {
+                    int end = cursor + random.nextInt(expected.length() - cursor + 1);
+                    buffer.replace(cursor, end, "7");
+                    expected.replace(cursor, end, "7");
+                }
+            }
+            assertEquals(expected.toString(), buffer.toString());
+        }
+    }
+
+    @Test
+    void undoesAndRedoesInsertionsAndDeletions() {
+        ExpressionBuffer buffer = new ExpressionBuffer("x");
+        buffer.insert("+1");
+        buffer.moveCursor(0);
+        buffer.insert("(");
+        buffer.moveCursor(3);
+        buffer.deleteBackward();
+        buffer.deleteBackward();
+        buffer.setText("sqrt(2)");
+        // Each deletion is an edit of its own
+        List<String> states = List.of("x", "x+1", "(x+1", "(x1", "(1", "sqrt(2)");
+        for (int i = states.size() - 2; i >= 0; i--) {
+            assertTrue(buffer.undo());
+            assertEquals(states.get(i), buffer.toString());
+        }
+        assertFalse(buffer.undo());
+        assertEquals(1, buffer.cursor()); // Where the undone insertion was
+
+        for (int i = 1; i < states.size(); i++) {
+            assertTrue(buffer.redo());
+            assertEquals(states.get(i), buffer.toString());
+        }
+        assertFalse(buffer.redo());
+        assertEquals(7, buffer.cursor());
+        assertTrue(buffer.undo());
+        assertTrue(buffer.undo());
+        assertEquals("(x1", buffer.toString());
+        assertEquals(2, buffer.cursor());
+    }
+
+    @Test
+    void newEditsClearTheRedoHistory() {
+        ExpressionBuffer buffer = new ExpressionBuffer("");
+        buffer.insert("1");
+        buffer.insert("2");
+        assertTrue(buffer.undo());
+        buffer.replace(0, 1, "1"); // Changes nothing, so it can still be redone
+        assertTrue(buffer.redo());
+        assertEquals("12", buffer.toString());
+        assertTrue(buffer.undo());
+        buffer.insert("3");
+        assertFalse(buffer.redo());
+        assertEquals("13", buffer.toString());
+    }
+
+    @Test
+    void keepsABoundedHistory() {
+        ExpressionBuffer buffer = new ExpressionBuffer("0", 3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.insert(String.valueOf(i));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buffer.undo());
+        }
+        assertFalse(buffer.undo());
+        assertEquals("012", buffer.toString());
+
+        ExpressionBuffer unrecorded = new ExpressionBuffer("0", 0);
+        unrecorded.insert("1");
+        assertFalse(unrecorded.undo());
+        assertEquals("01", unrecorded.toString());
+    }
+
+    @Test
+    void versionChangesWithTheText() {
+        ExpressionBuffer buffer = new ExpressionBuffer("1");
+        long version = buffer.version();
+        buffer.moveCursor(0);
+        assertEquals(version, buffer.version());
+        buffer.insert("-");
+        assertNotEquals(version, buffer.version());
+        version = buffer.version();
+        buffer.undo();
+        assertNotEquals(version, buffer.version());
+    }
+}